@@ -19,6 +19,7 @@ export class CartComponent implements OnInit {
   error: string | null = null;
   checkoutLoading = false;
   checkoutSuccess = false;
+  checkoutPartial = false;
 
   constructor(
     private authService: AuthService,
@@ -55,11 +56,17 @@ export class CartComponent implements OnInit {
     this.checkoutLoading = true;
     this.error = null;
     this.cartService.checkout().subscribe({
-      next: () => {
+      next: (res) => {
         this.checkoutLoading = false;
         this.checkoutSuccess = true;
-        this.items = [];
-        this.totalPrice = 0;
+        this.checkoutPartial = (res.failedItems?.length ?? 0) > 0;
+        if (this.checkoutPartial) {
+          // Unavailable items stay in the cart
+          this.loadCart();
+        } else {
+          this.items = [];
+          this.totalPrice = 0;
+        }
       },
       error: (err) => {
         this.checkoutLoading = false;
@@ -29,3 +29,22 @@ export interface GetOrdersParams {
   createdBefore?: string; // ISO-8601
   sort?: string; // e.g. "createdAt,desc"
 }
+
+/**
+ * Одна страница списка заказов.
+ * Пока hasNext = true, следующая страница запрашивается по nextCursor
+ * (или по номеру page + 1, если сервер не вернул курсор — при сортировке не по умолчанию).
+ */
+export interface OrderPage {
+  content: OrderDto[];
+  size: number;
+  hasNext: boolean;
+  nextCursor: string | null;
+  page?: number; // только в ответах без курсора
+}
+
+export interface OrderPageParams extends GetOrdersParams {
+  page?: number;
+  size?: number;
+  cursor?: string;
+}
@@ -19,9 +19,16 @@ export interface CartResponse {
   totalPrice: number;
 }
 
+export interface CheckoutFailedItem {
+  productId: number;
+  productName: string;
+  reason: string;
+}
+
 export interface CheckoutResponse {
   orderIds: number[];
   totalPrice: number;
+  failedItems: CheckoutFailedItem[];
   message: string;
 }
 
@@ -1,20 +1,49 @@
 import { Injectable } from '@angular/core';
-import { Observable } from 'rxjs';
+import { EMPTY, Observable } from 'rxjs';
+import { expand, reduce } from 'rxjs/operators';
 import { BaseHttpService } from './base-http.service';
-import { GetOrdersParams, OrderDto } from '../models/order.model';
+import {
+  GetOrdersParams,
+  OrderDto,
+  OrderPage,
+  OrderPageParams,
+} from '../models/order.model';
 
 @Injectable({
   providedIn: 'root',
 })
 export class OrderService extends BaseHttpService {
   private readonly endpoint = '/orders';
+  // Максимальный размер страницы на сервере
+  private readonly pageSize = 200;
 
   /**
-   * Получить список заказов (с фильтрами/поиском/сортировкой).
-   * Backend: GET /api/orders?userId=&status=&search=&createdAfter=&createdBefore=&sort=
+   * Получить все заказы (с фильтрами/поиском/сортировкой), проходя по страницам, пока hasNext = true.
+   * Backend: GET /api/orders?userId=&status=&search=&createdAfter=&createdBefore=&sort=&size=&cursor=
    */
   getOrders(params?: GetOrdersParams): Observable<OrderDto[]> {
-    return this.get<OrderDto[]>(this.endpoint, params);
+    const query: OrderPageParams = { ...params, size: this.pageSize };
+    return this.getOrdersPage(query).pipe(
+      expand((page) => {
+        if (!page.hasNext) {
+          return EMPTY;
+        }
+        return this.getOrdersPage(
+          page.nextCursor
+            ? { ...query, cursor: page.nextCursor }
+            : { ...query, page: (page.page ?? 0) + 1 }
+        );
+      }),
+      reduce((orders: OrderDto[], page) => orders.concat(page.content), [])
+    );
+  }
+
+  /**
+   * Получить одну страницу заказов.
+   * Backend: GET /api/orders?...&page=&size=&cursor=
+   */
+  getOrdersPage(params?: OrderPageParams): Observable<OrderPage> {
+    return this.get<OrderPage>(this.endpoint, params);
   }
 
   /**
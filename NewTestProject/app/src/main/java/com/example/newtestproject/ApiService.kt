@@ -2,7 +2,7 @@ package com.example.newtestproject
 
 import com.example.newtestproject.model.User
 import com.example.newtestproject.model.ServerAuthResponse
-import com.example.newtestproject.model.Order
+import com.example.newtestproject.model.OrderPageResponse
 import com.example.newtestproject.model.Product
 import com.example.newtestproject.model.ProductPageResponse
 import com.example.newtestproject.model.RatingStats
@@ -36,10 +36,17 @@ interface ApiService {
     fun loginWithGoogle(@Body request: Map<String, String>): Call<ServerAuthResponse>
 
     @GET("/api/orders")
-    fun getAllOrders(): Call<List<Order>>
+    fun getAllOrders(
+        @Query("cursor") cursor: String = "",
+        @Query("size") size: Int? = null
+    ): Call<OrderPageResponse>
 
     @GET("/api/orders/user/{userId}")
-    fun getOrdersByUser(@Path("userId") userId: Long): Call<List<Order>>
+    fun getOrdersByUser(
+        @Path("userId") userId: Long,
+        @Query("cursor") cursor: String = "",
+        @Query("size") size: Int? = null
+    ): Call<OrderPageResponse>
 
     @GET("/api/products")
     fun getProducts(
@@ -48,7 +55,8 @@ interface ApiService {
         @Query("category") category: String? = null,
         @Query("search") search: String? = null,
         @Query("sellerId") sellerId: Long? = null,
-        @Query("availableOnly") availableOnly: Boolean? = null
+        @Query("availableOnly") availableOnly: Boolean? = null,
+        @Query("cursor") cursor: String? = null
     ): Call<ProductPageResponse>
 
     @GET("/api/products/{id}")
@@ -97,7 +105,9 @@ interface ApiService {
     @GET("/api/messages/conversation/{otherUserId}")
     fun getConversation(
         @Header("Authorization") authorization: String,
-        @Path("otherUserId") otherUserId: Long
+        @Path("otherUserId") otherUserId: Long,
+        @Query("limit") limit: Int? = null,
+        @Query("before") before: String? = null
     ): Call<ConversationMessagesResponse>
 
     @POST("/api/messages/send")
@@ -6,7 +6,9 @@ data class ConversationsResponse(
 
 data class ConversationMessagesResponse(
     val otherUserId: Long? = null,
-    val messages: List<MessageDto>? = null
+    val messages: List<MessageDto>? = null,
+    val hasMore: Boolean? = null,
+    val nextBefore: String? = null
 )
 
 data class UnreadCountResponse(
@@ -0,0 +1,9 @@
+package com.example.newtestproject.model
+
+data class OrderPageResponse(
+    val content: List<Order> = emptyList(),
+    val page: Int? = null,
+    val size: Int? = null,
+    val hasNext: Boolean? = null,
+    val nextCursor: String? = null
+)
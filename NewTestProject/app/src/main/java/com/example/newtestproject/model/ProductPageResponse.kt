@@ -5,5 +5,7 @@ data class ProductPageResponse(
     val totalElements: Long? = null,
     val totalPages: Int? = null,
     val page: Int? = null,
-    val size: Int? = null
+    val size: Int? = null,
+    val hasNext: Boolean? = null,
+    val nextCursor: String? = null
 )
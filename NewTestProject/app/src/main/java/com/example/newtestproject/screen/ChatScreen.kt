@@ -71,6 +71,8 @@ fun ChatScreen(
     var errorMessage by remember { mutableStateOf<String?>(null) }
     var newMessage by remember { mutableStateOf("") }
     var sending by remember { mutableStateOf(false) }
+    var olderCursor by remember { mutableStateOf<String?>(null) }
+    var loadingOlder by remember { mutableStateOf(false) }
 
     val context = LocalContext.current
     val token = SessionPrefs.getServerToken(context)
@@ -155,7 +157,7 @@ fun ChatScreen(
             errorMessage = loginRequiredMessage
             return@LaunchedEffect
         }
-        RetrofitClient.api.getConversation(authHeader, otherUserId)
+        RetrofitClient.api.getConversation(authHeader, otherUserId, limit = CHAT_PAGE_SIZE)
             .enqueue(object : Callback<com.example.newtestproject.model.ConversationMessagesResponse> {
                 override fun onResponse(
                     call: Call<com.example.newtestproject.model.ConversationMessagesResponse>,
@@ -164,6 +166,7 @@ fun ChatScreen(
                     isLoading = false
                     if (response.isSuccessful) {
                         messages = response.body()?.messages ?: emptyList()
+                        olderCursor = response.body()?.nextBefore
                         val unread = messages.filter { it.receiverId == meId && it.isRead != true }
                         unread.forEach { msg ->
                             val id = msg.id ?: return@forEach
@@ -196,6 +199,44 @@ fun ChatScreen(
             })
     }
 
+    // Load the previous page of history when the user scrolls to the top of the chat
+    LaunchedEffect(otherUserId, authHeader) {
+        snapshotFlow { Triple(listState.firstVisibleItemIndex, olderCursor, didInitialScroll) }
+            .collect { (index, cursor, initialScrollDone) ->
+                if (index != 0 || cursor == null || loadingOlder || authHeader == null || !initialScrollDone) {
+                    return@collect
+                }
+                loadingOlder = true
+                RetrofitClient.api.getConversation(authHeader, otherUserId, limit = CHAT_PAGE_SIZE, before = cursor)
+                    .enqueue(object : Callback<com.example.newtestproject.model.ConversationMessagesResponse> {
+                        override fun onResponse(
+                            call: Call<com.example.newtestproject.model.ConversationMessagesResponse>,
+                            response: Response<com.example.newtestproject.model.ConversationMessagesResponse>
+                        ) {
+                            loadingOlder = false
+                            if (response.isSuccessful) {
+                                val older = (response.body()?.messages ?: emptyList())
+                                    .filter { old -> currentMessages.none { it.id == old.id } }
+                                olderCursor = response.body()?.nextBefore
+                                if (older.isNotEmpty()) {
+                                    messages = older + currentMessages
+                                    coroutineScope.launch {
+                                        listState.scrollToItem(older.size)
+                                    }
+                                }
+                            }
+                        }
+
+                        override fun onFailure(
+                            call: Call<com.example.newtestproject.model.ConversationMessagesResponse>,
+                            t: Throwable
+                        ) {
+                            loadingOlder = false
+                        }
+                    })
+            }
+    }
+
     LaunchedEffect(otherUserId) {
         snapshotFlow { listState.firstVisibleItemIndex to listState.firstVisibleItemScrollOffset }
             .collect { (index, offset) ->
@@ -203,7 +244,8 @@ fun ChatScreen(
             }
     }
 
-    LaunchedEffect(messages.size) {
+    // Keyed on the newest message so that prepending older history does not trigger auto-scroll
+    LaunchedEffect(messages.lastOrNull()?.id) {
         if (messages.isNotEmpty() && !didInitialScroll) {
             if (restoredPosition.first == 0 && restoredPosition.second == 0) {
                 listState.scrollToItem(messages.lastIndex)
@@ -353,6 +395,8 @@ fun ChatScreen(
     }
 }
 
+private const val CHAT_PAGE_SIZE = 50
+
 @Composable
 private fun MessageBubble(msg: MessageDto, isMine: Boolean) {
     val align = if (isMine) Alignment.End else Alignment.Start
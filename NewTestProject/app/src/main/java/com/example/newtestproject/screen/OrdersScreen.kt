@@ -16,10 +16,8 @@ import com.example.newtestproject.R
 import com.example.newtestproject.RetrofitClient
 import com.example.newtestproject.model.Order
 import com.example.newtestproject.model.OrderStatus
+import com.example.newtestproject.util.OrderPages
 import com.example.newtestproject.util.SessionPrefs
-import retrofit2.Call
-import retrofit2.Callback
-import retrofit2.Response
 import java.text.SimpleDateFormat
 import java.util.*
 
@@ -34,26 +32,22 @@ fun OrdersScreen(
     val context = LocalContext.current
 
     LaunchedEffect(Unit) {
-        // Загружаем все заказы от всех пользователей
-        RetrofitClient.api.getAllOrders()
-            .enqueue(object : Callback<List<Order>> {
-                override fun onResponse(
-                    call: Call<List<Order>>,
-                    response: Response<List<Order>>
-                ) {
-                    isLoading = false
-                    if (response.isSuccessful) {
-                        orders = response.body() ?: emptyList()
-                    } else {
-                        errorMessage = "Ошибка загрузки заказов: ${response.code()}"
-                    }
-                }
-
-                override fun onFailure(call: Call<List<Order>>, t: Throwable) {
-                    isLoading = false
-                    errorMessage = "Ошибка сети: ${t.message}"
-                }
-            })
+        // Загружаем все заказы от всех пользователей, страница за страницей
+        OrderPages.loadAll(
+            fetchPage = { cursor -> RetrofitClient.api.getAllOrders(cursor, OrderPages.PAGE_SIZE) },
+            onLoaded = { loaded ->
+                isLoading = false
+                orders = loaded
+            },
+            onHttpError = { code ->
+                isLoading = false
+                errorMessage = "Ошибка загрузки заказов: $code"
+            },
+            onNetworkError = { t ->
+                isLoading = false
+                errorMessage = "Ошибка сети: ${t.message}"
+            }
+        )
     }
 
     Column(
@@ -16,6 +16,7 @@ import com.example.newtestproject.R
 import com.example.newtestproject.RetrofitClient
 import com.example.newtestproject.components.EncodeJwt
 import com.example.newtestproject.model.Order
+import com.example.newtestproject.util.OrderPages
 import com.example.newtestproject.util.SessionPrefs
 import retrofit2.Call
 import retrofit2.Callback
@@ -56,25 +57,21 @@ fun ProfileScreen(
             return@LaunchedEffect
         }
 
-        RetrofitClient.api.getOrdersByUser(userId)
-            .enqueue(object : Callback<List<Order>> {
-                override fun onResponse(
-                    call: Call<List<Order>>,
-                    response: Response<List<Order>>
-                ) {
-                    isLoading = false
-                    if (response.isSuccessful) {
-                        orders = response.body() ?: emptyList()
-                    } else {
-                        errorMessage = "${unknownErrorMessage}: ${response.code()}"
-                    }
-                }
-
-                override fun onFailure(call: Call<List<Order>>, t: Throwable) {
-                    isLoading = false
-                    errorMessage = "${networkErrorMessage}: ${t.message}"
-                }
-            })
+        OrderPages.loadAll(
+            fetchPage = { cursor -> RetrofitClient.api.getOrdersByUser(userId, cursor, OrderPages.PAGE_SIZE) },
+            onLoaded = { loaded ->
+                isLoading = false
+                orders = loaded
+            },
+            onHttpError = { code ->
+                isLoading = false
+                errorMessage = "${unknownErrorMessage}: $code"
+            },
+            onNetworkError = { t ->
+                isLoading = false
+                errorMessage = "${networkErrorMessage}: ${t.message}"
+            }
+        )
 
         RetrofitClient.api.getProducerRatingStats(userId)
             .enqueue(object : Callback<RatingStats> {
@@ -0,0 +1,55 @@
+package com.example.newtestproject.util
+
+import com.example.newtestproject.model.Order
+import com.example.newtestproject.model.OrderPageResponse
+import retrofit2.Call
+import retrofit2.Callback
+import retrofit2.Response
+
+/**
+ * Загрузка всего списка заказов: сервер отдает его страницами, следующая запрашивается
+ * по nextCursor, пока в ответе hasNext = true. Пустой курсор начинает с самого нового заказа.
+ */
+object OrderPages {
+    // Максимальный размер страницы на сервере
+    const val PAGE_SIZE = 200
+
+    fun loadAll(
+        fetchPage: (cursor: String) -> Call<OrderPageResponse>,
+        onLoaded: (List<Order>) -> Unit,
+        onHttpError: (code: Int) -> Unit,
+        onNetworkError: (Throwable) -> Unit
+    ) {
+        loadFrom("", emptyList(), fetchPage, onLoaded, onHttpError, onNetworkError)
+    }
+
+    private fun loadFrom(
+        cursor: String,
+        loaded: List<Order>,
+        fetchPage: (cursor: String) -> Call<OrderPageResponse>,
+        onLoaded: (List<Order>) -> Unit,
+        onHttpError: (code: Int) -> Unit,
+        onNetworkError: (Throwable) -> Unit
+    ) {
+        fetchPage(cursor).enqueue(object : Callback<OrderPageResponse> {
+            override fun onResponse(call: Call<OrderPageResponse>, response: Response<OrderPageResponse>) {
+                if (!response.isSuccessful) {
+                    onHttpError(response.code())
+                    return
+                }
+                val page = response.body()
+                val orders = loaded + (page?.content ?: emptyList())
+                val nextCursor = page?.nextCursor
+                if (page?.hasNext == true && nextCursor != null) {
+                    loadFrom(nextCursor, orders, fetchPage, onLoaded, onHttpError, onNetworkError)
+                } else {
+                    onLoaded(orders)
+                }
+            }
+
+            override fun onFailure(call: Call<OrderPageResponse>, t: Throwable) {
+                onNetworkError(t)
+            }
+        })
+    }
+}
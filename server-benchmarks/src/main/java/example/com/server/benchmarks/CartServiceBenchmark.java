@@ -0,0 +1,80 @@
+package example.com.server.benchmarks;
+
+import example.com.server.service.CartService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every checkout sells the products in its cart, so a cart can be checked out only once. Each iteration
+ * therefore prepares a pool of full carts, one per buyer, and measures checking out all of them as one batch
+ * (single-shot time per batch, reported per checkout). Filling the carts is not part of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, batchSize = CartServiceBenchmark.CARTS_PER_ITERATION)
+@Measurement(iterations = 10, batchSize = CartServiceBenchmark.CARTS_PER_ITERATION)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CartServiceBenchmark extends ServerState {
+
+    static final int CARTS_PER_ITERATION = 50;
+
+    @Param({"1", "10", "30"})
+    public int cartSize;
+
+    private CartService cartService;
+    private JdbcTemplate jdbcTemplate;
+    private long[] buyerIds;
+    private long sellerId;
+    private int nextBuyer;
+
+    @Override
+    protected void onStarted() {
+        cartService = bean(CartService.class);
+        jdbcTemplate = bean(JdbcTemplate.class);
+        if (marketplace.customerIds().length < CARTS_PER_ITERATION) {
+            throw new IllegalStateException("Need at least " + CARTS_PER_ITERATION + " customers");
+        }
+        buyerIds = Arrays.copyOf(marketplace.customerIds(), CARTS_PER_ITERATION);
+        sellerId = marketplace.producerIds()[0];
+    }
+
+    /**
+     * Put cartSize fresh products into the cart of every buyer in the pool.
+     */
+    @Setup(Level.Iteration)
+    public void fillCarts() {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> products = new ArrayList<>(CARTS_PER_ITERATION * cartSize);
+        for (int i = 0; i < CARTS_PER_ITERATION * cartSize; i++) {
+            products.add(new Object[]{"Benchmark item", sellerId, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO product (name, description, price, image_url, seller_id, category, "
+                + "created_at, is_available) VALUES (?, NULL, 10, NULL, ?, 'art', ?, true)", products);
+        long lastProductId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM product", Long.class);
+        long firstProductId = lastProductId - (long) CARTS_PER_ITERATION * cartSize + 1;
+
+        List<Object[]> items = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            items.add(new Object[]{buyerIds[i / cartSize], firstProductId + i, now});
+        }
+        List<Object[]> buyers = Arrays.stream(buyerIds).mapToObj(id -> new Object[]{id}).toList();
+        jdbcTemplate.batchUpdate("DELETE FROM cart_items WHERE user_id = ?", buyers);
+        jdbcTemplate.batchUpdate("INSERT INTO cart_items (user_id, product_id, quantity, created_at) "
+                + "VALUES (?, ?, 1, ?)", items);
+        nextBuyer = 0;
+    }
+
+    @Benchmark
+    public Map<String, Object> checkout() {
+        return cartService.checkout(buyerIds[nextBuyer++]);
+    }
+}
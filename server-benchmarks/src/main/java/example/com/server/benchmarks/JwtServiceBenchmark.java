@@ -0,0 +1,50 @@
+package example.com.server.benchmarks;
+
+import example.com.server.model.User;
+import example.com.server.service.JwtService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repeat authentication with the verified-token cache against full signature verification,
+ * which calls the token parser directly and never looks at the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private String bearerToken;
+    private String token;
+
+    @Setup
+    public void createToken() {
+        jwtService = new JwtService(10_000, Duration.ofMinutes(10));
+        token = jwtService.generateToken(user(1L));
+        bearerToken = "Bearer " + token;
+    }
+
+    @Benchmark
+    public Long cachedToken() {
+        return jwtService.getUserIdFromToken(bearerToken);
+    }
+
+    @Benchmark
+    public Claims verifiedEveryTime() {
+        return jwtService.verify(token);
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setLogin("user" + id);
+        return user;
+    }
+}
@@ -0,0 +1,29 @@
+package example.com.server.benchmarks;
+
+import example.com.server.dto.ConversationDTO;
+import example.com.server.service.MessageService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MessageServiceBenchmark extends ServerState {
+
+    private MessageService messageService;
+
+    @Override
+    protected void onStarted() {
+        messageService = bean(MessageService.class);
+    }
+
+    @Benchmark
+    public List<ConversationDTO> getUserConversations() {
+        return messageService.getUserConversations(randomCustomerId(), 50);
+    }
+}
@@ -0,0 +1,46 @@
+package example.com.server.benchmarks;
+
+import example.com.server.dto.ProductListItem;
+import example.com.server.model.Product;
+import example.com.server.model.User;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization-side cost of a product in API responses: mapping the entity to its response DTO,
+ * and writing that DTO as JSON. Needs no database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductResponseBenchmark {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private Product product;
+
+    @Setup
+    public void createProduct() {
+        User seller = new User();
+        seller.setId(5L);
+        seller.setFullName("Seller Name");
+        product = new Product("Wooden table", "Handmade oak table", 120.0, null, seller, "furniture");
+        product.setId(1L);
+        product.setCreatedAt(Instant.now());
+    }
+
+    @Benchmark
+    public ProductListItem toResponse() {
+        return ProductListItem.fromEntity(product);
+    }
+
+    @Benchmark
+    public byte[] toJson() {
+        return jsonMapper.writeValueAsBytes(ProductListItem.fromEntity(product));
+    }
+}
@@ -0,0 +1,39 @@
+package example.com.server.benchmarks;
+
+import example.com.server.dto.ProductListItem;
+import example.com.server.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductServiceBenchmark extends ServerState {
+
+    private ProductService productService;
+
+    @Override
+    protected void onStarted() {
+        productService = bean(ProductService.class);
+    }
+
+    @Benchmark
+    public Page<ProductListItem> filterByCategory() {
+        return productService.findAllWithFilters(randomCategory(), null, null, true, 0, 20);
+    }
+
+    @Benchmark
+    public Page<ProductListItem> filterBySeller() {
+        return productService.findAllWithFilters(null, null, randomProducerId(), false, 0, 20);
+    }
+
+    @Benchmark
+    public Page<ProductListItem> search() {
+        return productService.findAllWithFilters(null, "oak tab", null, true, 0, 20);
+    }
+}
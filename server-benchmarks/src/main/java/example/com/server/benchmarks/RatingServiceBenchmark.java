@@ -0,0 +1,28 @@
+package example.com.server.benchmarks;
+
+import example.com.server.dto.RatingStatsDTO;
+import example.com.server.service.RatingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RatingServiceBenchmark extends ServerState {
+
+    private RatingService ratingService;
+
+    @Override
+    protected void onStarted() {
+        ratingService = bean(RatingService.class);
+    }
+
+    @Benchmark
+    public RatingStatsDTO getProducerRatingStats() {
+        return ratingService.getProducerRatingStats(randomProducerId());
+    }
+}
@@ -0,0 +1,74 @@
+package example.com.server.benchmarks;
+
+import example.com.server.ServerApplication;
+import example.com.server.datagen.DatagenApplication;
+import example.com.server.datagen.DatagenSettings;
+import example.com.server.datagen.GeneratedMarketplace;
+import example.com.server.service.ProductService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Boots the server context against an in-memory H2 database and fills it with the datagen module once per trial.
+ * The scale is chosen with the rows parameter (number of products and of messages).
+ */
+@State(Scope.Benchmark)
+public abstract class ServerState {
+
+    @Param({"10000"})
+    public int rows;
+
+    protected ConfigurableApplicationContext context;
+    protected GeneratedMarketplace marketplace;
+
+    @Setup(Level.Trial)
+    public void startServer() {
+        context = new SpringApplicationBuilder(ServerApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("benchmark")
+                .run();
+        marketplace = DatagenApplication.generator(context).generate(DatagenSettings.scaledTo(rows));
+
+        // The search index was built on an empty database at startup, so rebuild it after seeding
+        context.getBean(ProductService.class).buildSearchIndex();
+        onStarted();
+    }
+
+    /**
+     * Called once the context is running and seeded, e.g. to look up the beans under test.
+     * (JMH gives no ordering guarantee between @Setup methods of a class and its superclass.)
+     */
+    protected abstract void onStarted();
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        context.close();
+    }
+
+    protected long randomProducerId() {
+        long[] ids = marketplace.producerIds();
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    protected long randomCustomerId() {
+        long[] ids = marketplace.customerIds();
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    protected String randomCategory() {
+        return marketplace.categories().get(ThreadLocalRandom.current().nextInt(marketplace.categories().size()));
+    }
+
+    protected <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,42 @@
+package example.com.server.datagen;
+
+import example.com.server.ServerApplication;
+import example.com.server.repository.MessageRepository;
+import example.com.server.repository.OrderRepository;
+import example.com.server.repository.ProductRepository;
+import example.com.server.repository.RatingRepository;
+import example.com.server.repository.UserRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Boots the server's persistence layer without the web server, generates the dataset and exits.
+ * Settings come from the datagen.* properties (see application-datagen.properties),
+ * e.g. --datagen.messages=10000000 on the command line.
+ */
+public class DatagenApplication {
+
+    public static void main(String[] args) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ServerApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("datagen")
+                .run(args)) {
+            DatagenSettings settings = Binder.get(context.getEnvironment())
+                    .bindOrCreate("datagen", DatagenSettings.class);
+            generator(context).generate(settings);
+        }
+    }
+
+    /**
+     * Create a generator that writes through the repositories and JDBC connection of the given context.
+     */
+    public static MarketplaceGenerator generator(ConfigurableApplicationContext context) {
+        return new MarketplaceGenerator(context.getBean(JdbcTemplate.class),
+                context.getBean(UserRepository.class), context.getBean(ProductRepository.class),
+                context.getBean(MessageRepository.class), context.getBean(RatingRepository.class),
+                context.getBean(OrderRepository.class));
+    }
+}
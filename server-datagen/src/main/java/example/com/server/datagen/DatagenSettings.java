@@ -0,0 +1,182 @@
+package example.com.server.datagen;
+
+import java.util.List;
+
+/**
+ * Volumes and distributions of a generated marketplace. Bound from the datagen.* properties.
+ */
+public class DatagenSettings {
+
+    private long seed = 42;
+
+    private int users = 100_000;
+    private int products = 1_000_000;
+    private int messages = 10_000_000;
+    private int ratings = 200_000;
+    private int orders = 500_000;
+
+    private double producerShare = 0.2;
+    private double adminShare = 0.001;
+    private List<String> categories = List.of("furniture", "kitchen", "jewelry", "textile", "ceramics",
+            "toys", "art", "leather", "clothing", "decor");
+    private double sellerSkew = 1.1;
+    private double categorySkew = 0.8;
+    private double messageSkew = 1.2;
+    private double availableShare = 0.9;
+    private double readShare = 0.9;
+    private int historyDays = 365;
+
+    private int batchSize = 10_000;
+    private int writerThreads = 4;
+
+    /**
+     * Settings for a dataset of roughly the given number of products and messages,
+     * with the other volumes scaled proportionally. Used by the benchmarks.
+     */
+    public static DatagenSettings scaledTo(int rows) {
+        DatagenSettings settings = new DatagenSettings();
+        settings.setUsers(Math.max(100, rows / 10));
+        settings.setProducts(rows);
+        settings.setMessages(rows);
+        settings.setRatings(rows / 5);
+        settings.setOrders(rows / 2);
+        return settings;
+    }
+
+    // Getters and Setters
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public void setUsers(int users) {
+        this.users = users;
+    }
+
+    public int getProducts() {
+        return products;
+    }
+
+    public void setProducts(int products) {
+        this.products = products;
+    }
+
+    public int getMessages() {
+        return messages;
+    }
+
+    public void setMessages(int messages) {
+        this.messages = messages;
+    }
+
+    public int getRatings() {
+        return ratings;
+    }
+
+    public void setRatings(int ratings) {
+        this.ratings = ratings;
+    }
+
+    public int getOrders() {
+        return orders;
+    }
+
+    public void setOrders(int orders) {
+        this.orders = orders;
+    }
+
+    public double getProducerShare() {
+        return producerShare;
+    }
+
+    public void setProducerShare(double producerShare) {
+        this.producerShare = producerShare;
+    }
+
+    public double getAdminShare() {
+        return adminShare;
+    }
+
+    public void setAdminShare(double adminShare) {
+        this.adminShare = adminShare;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<String> categories) {
+        this.categories = categories;
+    }
+
+    public double getSellerSkew() {
+        return sellerSkew;
+    }
+
+    public void setSellerSkew(double sellerSkew) {
+        this.sellerSkew = sellerSkew;
+    }
+
+    public double getCategorySkew() {
+        return categorySkew;
+    }
+
+    public void setCategorySkew(double categorySkew) {
+        this.categorySkew = categorySkew;
+    }
+
+    public double getMessageSkew() {
+        return messageSkew;
+    }
+
+    public void setMessageSkew(double messageSkew) {
+        this.messageSkew = messageSkew;
+    }
+
+    public double getAvailableShare() {
+        return availableShare;
+    }
+
+    public void setAvailableShare(double availableShare) {
+        this.availableShare = availableShare;
+    }
+
+    public double getReadShare() {
+        return readShare;
+    }
+
+    public void setReadShare(double readShare) {
+        this.readShare = readShare;
+    }
+
+    public int getHistoryDays() {
+        return historyDays;
+    }
+
+    public void setHistoryDays(int historyDays) {
+        this.historyDays = historyDays;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getWriterThreads() {
+        return writerThreads;
+    }
+
+    public void setWriterThreads(int writerThreads) {
+        this.writerThreads = writerThreads;
+    }
+}
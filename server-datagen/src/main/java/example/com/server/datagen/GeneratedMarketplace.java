@@ -0,0 +1,11 @@
+package example.com.server.datagen;
+
+import java.util.List;
+
+/**
+ * Ids of what was generated, so callers (e.g. benchmarks) can pick valid users and products without queries.
+ * Producers are ordered from the largest seller to the smallest.
+ */
+public record GeneratedMarketplace(long[] producerIds, long[] customerIds, long firstProductId, long lastProductId,
+                                   List<String> categories) {
+}
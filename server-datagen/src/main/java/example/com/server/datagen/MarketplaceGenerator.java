@@ -0,0 +1,349 @@
+package example.com.server.datagen;
+
+import example.com.server.model.Order;
+import example.com.server.model.User;
+import example.com.server.repository.MessageRepository;
+import example.com.server.repository.OrderRepository;
+import example.com.server.repository.ProductRepository;
+import example.com.server.repository.RatingRepository;
+import example.com.server.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes a synthetic marketplace into an empty database.
+ * Rows are written with JDBC batches rather than repository saves: every entity uses IDENTITY ids,
+ * which makes Hibernate insert one row per statement. Products and messages are generated in
+ * fixed-size chunks, each with its own random stream derived from the seed, and written by several
+ * threads with explicit ids; the same seed therefore yields the same rows and ids regardless of
+ * thread scheduling.
+ */
+public class MarketplaceGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(MarketplaceGenerator.class);
+
+    private static final String[] WORDS = {"oak", "handmade", "table", "mug", "lamp", "ring", "scarf", "vase",
+            "wooden", "ceramic", "silver", "wool", "bowl", "chair", "print", "bag", "linen", "candle", "knitted",
+            "leather", "walnut", "glass", "painted", "woven"};
+    private static final String[] FIRST_NAMES = {"Anna", "Ivan", "Maria", "Dmitry", "Elena", "Sergey", "Olga",
+            "Alexey", "Natalia", "Pavel"};
+    private static final String[] LAST_NAMES = {"Ivanova", "Petrov", "Smirnova", "Kuznetsov", "Popova",
+            "Sokolov", "Lebedeva", "Kozlov", "Novikova", "Morozov"};
+    private static final Order.Status[] ORDER_STATUSES = Order.Status.values();
+
+    // Same statements as the backfills in the V3/V4 migrations, run on the generated rows
+    private static final String CONVERSATION_SUMMARIES_SQL =
+            "INSERT INTO conversation_summaries (owner_id, partner_id, partner_name, last_message, last_message_at, "
+                    + "last_message_from_me, unread_count) "
+                    + "SELECT c.owner_id, c.partner_id, "
+                    + "COALESCE(NULLIF(TRIM(p.full_name), ''), NULLIF(TRIM(p.login), ''), CONCAT('User ', p.iduser)), "
+                    + "m.content, m.created_at, m.sender_id = c.owner_id, c.unread_count "
+                    + "FROM (SELECT owner_id, partner_id, MAX(message_id) AS last_message_id, SUM(unread) AS unread_count "
+                    + "FROM (SELECT sender_id AS owner_id, receiver_id AS partner_id, id AS message_id, 0 AS unread "
+                    + "FROM messages "
+                    + "UNION ALL SELECT receiver_id, sender_id, id, CASE WHEN is_read THEN 0 ELSE 1 END FROM messages"
+                    + ") participants GROUP BY owner_id, partner_id) c "
+                    + "JOIN messages m ON m.id = c.last_message_id "
+                    + "JOIN user p ON p.iduser = c.partner_id";
+    private static final String PRODUCER_RATING_STATS_SQL =
+            "INSERT INTO producer_rating_stats (producer_id, rating_sum, rating_count, one_star, two_stars, "
+                    + "three_stars, four_stars, five_stars) "
+                    + "SELECT producer_id, SUM(rating_value), COUNT(*), "
+                    + "SUM(CASE WHEN rating_value = 1 THEN 1 ELSE 0 END), "
+                    + "SUM(CASE WHEN rating_value = 2 THEN 1 ELSE 0 END), "
+                    + "SUM(CASE WHEN rating_value = 3 THEN 1 ELSE 0 END), "
+                    + "SUM(CASE WHEN rating_value = 4 THEN 1 ELSE 0 END), "
+                    + "SUM(CASE WHEN rating_value = 5 THEN 1 ELSE 0 END) "
+                    + "FROM rating GROUP BY producer_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final MessageRepository messageRepository;
+    private final RatingRepository ratingRepository;
+    private final OrderRepository orderRepository;
+
+    public MarketplaceGenerator(JdbcTemplate jdbcTemplate, UserRepository userRepository,
+                                ProductRepository productRepository, MessageRepository messageRepository,
+                                RatingRepository ratingRepository, OrderRepository orderRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.messageRepository = messageRepository;
+        this.ratingRepository = ratingRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    /**
+     * Generate the marketplace described by the settings.
+     * @throws IllegalStateException if the database already contains users or products
+     */
+    public GeneratedMarketplace generate(DatagenSettings settings) {
+        if (userRepository.count() > 0 || productRepository.count() > 0) {
+            throw new IllegalStateException("Data can only be generated into an empty database");
+        }
+        Instant now = Instant.now();
+        Instant historyStart = now.minus(Duration.ofDays(settings.getHistoryDays()));
+
+        long startedAt = System.nanoTime();
+        UserIds users = insertUsers(settings);
+        logProgress("users", userRepository.count(), startedAt);
+
+        startedAt = System.nanoTime();
+        long firstProductId = insertProducts(settings, users, historyStart, now);
+        logProgress("products", productRepository.count(), startedAt);
+
+        startedAt = System.nanoTime();
+        insertMessages(settings, users, historyStart, now);
+        logProgress("messages", messageRepository.count(), startedAt);
+
+        startedAt = System.nanoTime();
+        insertRatings(settings, users, now);
+        logProgress("ratings", ratingRepository.count(), startedAt);
+
+        startedAt = System.nanoTime();
+        insertOrders(settings, users, firstProductId, historyStart, now);
+        logProgress("orders", orderRepository.count(), startedAt);
+
+        // The rows above bypass the services, so derive the aggregate tables they maintain in one pass
+        startedAt = System.nanoTime();
+        int summaries = jdbcTemplate.update(CONVERSATION_SUMMARIES_SQL);
+        logProgress("conversation summaries", summaries, startedAt);
+        startedAt = System.nanoTime();
+        int ratingStats = jdbcTemplate.update(PRODUCER_RATING_STATS_SQL);
+        logProgress("producer rating stats", ratingStats, startedAt);
+
+        return new GeneratedMarketplace(users.producers(), users.customers(), firstProductId,
+                firstProductId + settings.getProducts() - 1, List.copyOf(settings.getCategories()));
+    }
+
+    private record UserIds(long[] producers, long[] customers) {
+    }
+
+    private UserIds insertUsers(DatagenSettings settings) {
+        SplittableRandom random = streamFor(settings, "users", 0);
+        int count = settings.getUsers();
+        List<User.Role> roles = new ArrayList<>(count);
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double roll = random.nextDouble();
+            User.Role role = roll < settings.getAdminShare() ? User.Role.ADMIN
+                    : roll < settings.getAdminShare() + settings.getProducerShare() ? User.Role.PRODUCER
+                    : User.Role.CUSTOMER;
+            roles.add(role);
+            String fullName = pick(FIRST_NAMES, random) + " " + pick(LAST_NAMES, random);
+            rows.add(new Object[]{fullName, "user" + i, "user" + i + "@example.com", null, role.name()});
+        }
+        for (List<Object[]> batch : partition(rows, settings.getBatchSize())) {
+            jdbcTemplate.batchUpdate("INSERT INTO user (full_name, login, email, password, role) VALUES (?, ?, ?, ?, ?)",
+                    batch);
+        }
+
+        // Users were inserted in order into an empty table, so ids follow insertion order
+        long firstId = jdbcTemplate.queryForObject("SELECT MIN(iduser) FROM user", Long.class);
+        List<Long> producers = new ArrayList<>();
+        List<Long> customers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (roles.get(i) == User.Role.PRODUCER) {
+                producers.add(firstId + i);
+            } else if (roles.get(i) == User.Role.CUSTOMER) {
+                customers.add(firstId + i);
+            }
+        }
+        if (producers.isEmpty() || customers.isEmpty()) {
+            throw new IllegalStateException("Settings produce no producers or no customers");
+        }
+        return new UserIds(producers.stream().mapToLong(Long::longValue).toArray(),
+                customers.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    private long insertProducts(DatagenSettings settings, UserIds users, Instant from, Instant to) {
+        ZipfDistribution sellers = new ZipfDistribution(users.producers().length, settings.getSellerSkew());
+        ZipfDistribution categories = new ZipfDistribution(settings.getCategories().size(), settings.getCategorySkew());
+        long span = Duration.between(from, to).toMillis();
+        int total = settings.getProducts();
+
+        long firstId = nextId("product", "id");
+        writeInChunks(settings, "products", total, firstId,
+                "INSERT INTO product (id, name, description, price, image_url, seller_id, category, created_at, "
+                        + "is_available) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                (random, index) -> new Object[]{
+                        capitalize(pick(WORDS, random)) + " " + pick(WORDS, random),
+                        capitalize(pick(WORDS, random)) + " " + pick(WORDS, random) + " " + pick(WORDS, random),
+                        (double) (100 + random.nextInt(99_900)) / 100,
+                        null,
+                        users.producers()[sellers.sample(random)],
+                        settings.getCategories().get(categories.sample(random)),
+                        Timestamp.from(from.plusMillis(span * index / total)),
+                        random.nextDouble() < settings.getAvailableShare()});
+        return firstId;
+    }
+
+    private void insertMessages(DatagenSettings settings, UserIds users, Instant from, Instant to) {
+        int userCount = users.producers().length + users.customers().length;
+        long[] allUsers = new long[userCount];
+        System.arraycopy(users.producers(), 0, allUsers, 0, users.producers().length);
+        System.arraycopy(users.customers(), 0, allUsers, users.producers().length, users.customers().length);
+        // A few very active users send and receive most of the messages
+        ZipfDistribution activity = new ZipfDistribution(userCount, settings.getMessageSkew());
+        long span = Duration.between(from, to).toMillis();
+        int total = settings.getMessages();
+
+        writeInChunks(settings, "messages", total, nextId("messages", "id"),
+                "INSERT INTO messages (id, sender_id, receiver_id, content, created_at, is_read) VALUES (?, ?, ?, ?, ?, ?)",
+                (random, index) -> {
+                    int sender = activity.sample(random);
+                    int receiver = activity.sample(random);
+                    if (receiver == sender) {
+                        receiver = (receiver + 1 + random.nextInt(userCount - 1)) % userCount;
+                    }
+                    // The newest messages are the ones most likely still unread
+                    boolean read = index < total * 0.95 || random.nextDouble() < settings.getReadShare();
+                    return new Object[]{allUsers[sender], allUsers[receiver],
+                            "Hello! Is the " + pick(WORDS, random) + " " + pick(WORDS, random) + " still available?",
+                            Timestamp.from(from.plusMillis(span * index / total)), read};
+                });
+    }
+
+    private void insertRatings(DatagenSettings settings, UserIds users, Instant now) {
+        SplittableRandom random = streamFor(settings, "ratings", 0);
+        ZipfDistribution producers = new ZipfDistribution(users.producers().length, settings.getSellerSkew());
+        long possible = (long) users.producers().length * users.customers().length;
+        int total = (int) Math.min(settings.getRatings(), possible / 2);
+
+        Set<Long> pairs = new HashSet<>();
+        List<Object[]> batch = new ArrayList<>(settings.getBatchSize());
+        Timestamp createdAt = Timestamp.from(now);
+        while (pairs.size() < total) {
+            int producer = producers.sample(random);
+            int customer = random.nextInt(users.customers().length);
+            if (!pairs.add((long) customer * users.producers().length + producer)) {
+                continue;
+            }
+            // Mostly positive ratings, as on real marketplaces
+            int value = 5 - (int) Math.min(4, Math.floor(-Math.log(1 - random.nextDouble()) * 0.8));
+            batch.add(new Object[]{users.customers()[customer], users.producers()[producer], value, createdAt, createdAt});
+            if (batch.size() == settings.getBatchSize()) {
+                writeRatings(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeRatings(batch);
+        }
+    }
+
+    private void writeRatings(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO rating (customer_id, producer_id, rating_value, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?)", batch);
+    }
+
+    private void insertOrders(DatagenSettings settings, UserIds users, long firstProductId, Instant from, Instant to) {
+        SplittableRandom random = streamFor(settings, "orders", 0);
+        long span = Duration.between(from, to).toMillis();
+        int total = settings.getOrders();
+        List<Order> batch = new ArrayList<>(settings.getBatchSize());
+        for (int i = 0; i < total; i++) {
+            User customer = new User();
+            customer.setId(users.customers()[random.nextInt(users.customers().length)]);
+            long productId = firstProductId + random.nextInt(settings.getProducts());
+            Order order = new Order(customer, "Purchase: " + pick(WORDS, random) + " (ID: " + productId + ")",
+                    ORDER_STATUSES[random.nextInt(ORDER_STATUSES.length)]);
+            order.setCreatedAt(from.plusMillis(span * i / Math.max(1, total)));
+            batch.add(order);
+            if (batch.size() == settings.getBatchSize()) {
+                orderRepository.insertAll(batch);
+                batch = new ArrayList<>(settings.getBatchSize());
+            }
+        }
+        if (!batch.isEmpty()) {
+            orderRepository.insertAll(batch);
+        }
+    }
+
+    private interface RowFactory {
+        Object[] row(SplittableRandom random, long index);
+    }
+
+    private long nextId(String table, String idColumn) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + idColumn + "), 0) + 1 FROM " + table, Long.class);
+    }
+
+    /**
+     * Generate and insert total rows in chunks of batchSize on writerThreads threads.
+     * Row i gets the id firstId + i, which the SQL takes as its first parameter.
+     */
+    private void writeInChunks(DatagenSettings settings, String table, int total, long firstId, String sql,
+                               RowFactory factory) {
+        int batchSize = settings.getBatchSize();
+        int chunks = (total + batchSize - 1) / batchSize;
+        ExecutorService writers = Executors.newFixedThreadPool(settings.getWriterThreads());
+        try {
+            List<Future<?>> pending = new ArrayList<>(chunks);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int first = chunk * batchSize;
+                int last = Math.min(total, first + batchSize);
+                SplittableRandom random = streamFor(settings, table, chunk);
+                pending.add(writers.submit(() -> {
+                    List<Object[]> rows = new ArrayList<>(last - first);
+                    for (int i = first; i < last; i++) {
+                        Object[] values = factory.row(random, i);
+                        Object[] row = new Object[values.length + 1];
+                        row[0] = firstId + i;
+                        System.arraycopy(values, 0, row, 1, values.length);
+                        rows.add(row);
+                    }
+                    jdbcTemplate.batchUpdate(sql, rows);
+                }));
+            }
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating " + table, ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Failed to generate " + table, ex.getCause());
+        } finally {
+            writers.shutdownNow();
+        }
+    }
+
+    private static SplittableRandom streamFor(DatagenSettings settings, String table, int chunk) {
+        return new SplittableRandom(settings.getSeed() * 31 + table.hashCode() * 1_000_003L + chunk);
+    }
+
+    private static <T> List<List<T>> partition(List<T> rows, int size) {
+        List<List<T>> parts = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i += size) {
+            parts.add(rows.subList(i, Math.min(rows.size(), i + size)));
+        }
+        return parts;
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static void logProgress(String table, long rows, long startedAtNanos) {
+        log.info("Generated {} {} in {} ms", rows, table, (System.nanoTime() - startedAtNanos) / 1_000_000);
+    }
+}
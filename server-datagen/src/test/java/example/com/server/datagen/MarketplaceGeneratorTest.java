@@ -0,0 +1,110 @@
+package example.com.server.datagen;
+
+import example.com.server.ServerApplication;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketplaceGeneratorTest {
+
+    private ConfigurableApplicationContext context;
+
+    @AfterEach
+    void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    private ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(ServerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:" + database
+                                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--auth.bcrypt.strength=4",
+                        "--auth.google.certs-url=http://127.0.0.1:9/certs",
+                        "--auth.google.certs-timeout=PT0.1S");
+    }
+
+    private static DatagenSettings smallSettings() {
+        DatagenSettings settings = new DatagenSettings();
+        settings.setUsers(200);
+        settings.setProducts(1_000);
+        settings.setMessages(2_000);
+        settings.setRatings(500);
+        settings.setOrders(300);
+        settings.setBatchSize(250);
+        return settings;
+    }
+
+    @Test
+    void generatesRequestedVolumes() {
+        context = start("datagen-volumes");
+        GeneratedMarketplace marketplace = DatagenApplication.generator(context).generate(smallSettings());
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        assertEquals(200, jdbc.queryForObject("SELECT COUNT(*) FROM user", Long.class));
+        assertEquals(1_000, jdbc.queryForObject("SELECT COUNT(*) FROM product", Long.class));
+        assertEquals(2_000, jdbc.queryForObject("SELECT COUNT(*) FROM messages", Long.class));
+        assertEquals(500, jdbc.queryForObject("SELECT COUNT(*) FROM rating", Long.class));
+        assertEquals(300, jdbc.queryForObject("SELECT COUNT(*) FROM orders", Long.class));
+
+        // Every product is sold by a producer and ratings go from customers to producers
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM product p JOIN user u ON u.iduser = p.seller_id "
+                + "WHERE u.role <> 'PRODUCER'", Long.class));
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM rating r JOIN user u ON u.iduser = r.customer_id "
+                + "WHERE u.role <> 'CUSTOMER'", Long.class));
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM messages WHERE sender_id = receiver_id", Long.class));
+        assertEquals(marketplace.lastProductId(), jdbc.queryForObject("SELECT MAX(id) FROM product", Long.class));
+
+        // Aggregate tables match the rows they are derived from
+        assertEquals(jdbc.queryForObject("SELECT SUM(unread_count) FROM conversation_summaries", Long.class),
+                jdbc.queryForObject("SELECT COUNT(*) FROM messages WHERE is_read = false", Long.class));
+        assertEquals(2 * jdbc.queryForObject("SELECT COUNT(*) FROM (SELECT DISTINCT LEAST(sender_id, receiver_id), "
+                        + "GREATEST(sender_id, receiver_id) FROM messages) pairs", Long.class),
+                jdbc.queryForObject("SELECT COUNT(*) FROM conversation_summaries", Long.class));
+        assertEquals(500, jdbc.queryForObject("SELECT SUM(rating_count) FROM producer_rating_stats", Long.class));
+        assertEquals(jdbc.queryForObject("SELECT SUM(rating_value) FROM rating", Long.class),
+                jdbc.queryForObject("SELECT SUM(rating_sum) FROM producer_rating_stats", Long.class));
+    }
+
+    @Test
+    void sameSeedGeneratesSameData() {
+        context = start("datagen-seed-a");
+        DatagenApplication.generator(context).generate(smallSettings());
+        List<Map<String, Object>> first = sample(context.getBean(JdbcTemplate.class));
+        context.close();
+
+        context = start("datagen-seed-b");
+        DatagenApplication.generator(context).generate(smallSettings());
+        assertEquals(first, sample(context.getBean(JdbcTemplate.class)));
+    }
+
+    @Test
+    void refusesNonEmptyDatabase() {
+        context = start("datagen-non-empty");
+        MarketplaceGenerator generator = DatagenApplication.generator(context);
+        generator.generate(smallSettings());
+
+        assertThrows(IllegalStateException.class, () -> generator.generate(smallSettings()));
+    }
+
+    private static List<Map<String, Object>> sample(JdbcTemplate jdbc) {
+        return jdbc.queryForList("SELECT p.name, p.price, p.seller_id, p.category, p.is_available, "
+                + "(SELECT COUNT(*) FROM messages m WHERE m.sender_id = p.seller_id) AS sent "
+                + "FROM product p ORDER BY p.id LIMIT 50");
+    }
+}
@@ -0,0 +1,25 @@
+package example.com.server.loadtest;
+
+/**
+ * What a virtual user does in one step, labelled with the endpoint it calls.
+ */
+public enum Action {
+    BROWSE("GET /api/products"),
+    SEARCH("GET /api/products?search"),
+    PRODUCT_DETAIL("GET /api/products/{id}"),
+    ADD_TO_CART("POST /api/products/{id}/cart"),
+    CHECKOUT("POST /api/cart/checkout"),
+    INBOX("GET /api/messages/conversations"),
+    CHAT("GET /api/messages/conversation/{id}"),
+    SEND_MESSAGE("POST /api/messages/send");
+
+    private final String endpoint;
+
+    Action(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
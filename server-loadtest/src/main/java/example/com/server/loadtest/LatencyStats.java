@@ -0,0 +1,125 @@
+package example.com.server.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and outcome counters per endpoint, recorded in microseconds.
+ * Responses with a 4xx status are counted as rejected (e.g. a product sold to someone else),
+ * 5xx statuses and transport failures as errors; both are still part of the latency histogram.
+ */
+public class LatencyStats {
+
+    public static final String ALL_REQUESTS = "all HTTP requests";
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentSkipListMap<>();
+
+    private static final class Endpoint {
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+    }
+
+    /**
+     * Record a call that took the given number of nanoseconds and completed with the given HTTP status
+     * (0 when it failed without a response).
+     */
+    public void record(String endpoint, long nanos, int status) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, k -> new Endpoint());
+        stats.histogram.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0, nanos / 1000)));
+        if (status == 0 || status >= 500) {
+            stats.errors.increment();
+        } else if (status >= 400) {
+            stats.rejected.increment();
+        }
+    }
+
+    /**
+     * Count a failure that has no meaningful latency, e.g. a broken STOMP session.
+     */
+    public void recordError(String endpoint) {
+        endpoints.computeIfAbsent(endpoint, k -> new Endpoint()).errors.increment();
+    }
+
+    /**
+     * Drop everything recorded so far, e.g. at the end of the warmup.
+     */
+    public void reset() {
+        endpoints.clear();
+    }
+
+    /**
+     * Request count, throughput and p99 latency of one endpoint, or of all requests together.
+     */
+    public record Summary(long count, double ratePerSecond, double p99Millis) {
+    }
+
+    /**
+     * Summaries per endpoint, preceded by the summary of all HTTP requests together under {@link #ALL_REQUESTS}.
+     * STOMP deliveries are not requests a user waits for, so they are left out of that total.
+     */
+    public Map<String, Summary> summarize(Duration measured) {
+        double seconds = Math.max(1, measured.toMillis()) / 1000.0;
+        Histogram all = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        Map<String, Summary> summaries = new LinkedHashMap<>();
+        summaries.put(ALL_REQUESTS, null);
+        endpoints.forEach((name, stats) -> {
+            if (!name.equals(MessageDeliveryListener.ENDPOINT)) {
+                all.add(stats.histogram);
+            }
+            summaries.put(name, summary(stats.histogram, seconds));
+        });
+        summaries.put(ALL_REQUESTS, summary(all, seconds));
+        return summaries;
+    }
+
+    private static Summary summary(Histogram histogram, double seconds) {
+        return new Summary(histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+                millis(histogram.getValueAtPercentile(99)));
+    }
+
+    public void print(PrintStream out, Duration measured) {
+        double seconds = Math.max(1, measured.toMillis()) / 1000.0;
+        out.printf("%-42s %9s %8s %9s %9s %9s %9s %9s %8s %8s%n", "endpoint", "count", "rate/s",
+                "p50 ms", "p99 ms", "p999 ms", "max ms", "mean ms", "rejected", "errors");
+        endpoints.forEach((name, stats) -> {
+            Histogram histogram = stats.histogram;
+            out.printf("%-42s %9d %8.1f %9.2f %9.2f %9.2f %9.2f %9.2f %8d %8d%n", name,
+                    histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()),
+                    histogram.getMean() / 1000, stats.rejected.sum(), stats.errors.sum());
+        });
+    }
+
+    /**
+     * Write the full percentile distribution of every endpoint as an .hgrm file (values in milliseconds),
+     * e.g. for plotting or comparing runs.
+     */
+    public void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            String fileName = entry.getKey().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(fileName)))) {
+                entry.getValue().histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
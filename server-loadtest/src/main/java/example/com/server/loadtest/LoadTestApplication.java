@@ -0,0 +1,158 @@
+package example.com.server.loadtest;
+
+import example.com.server.ServerApplication;
+import example.com.server.datagen.DatagenApplication;
+import example.com.server.datagen.DatagenSettings;
+import example.com.server.datagen.GeneratedMarketplace;
+import example.com.server.model.User;
+import example.com.server.repository.UserRepository;
+import example.com.server.service.JwtService;
+import example.com.server.service.ProductService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.messaging.converter.JacksonJsonMessageConverter;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Boots the server on a random local port against its configured database (in-memory H2 by default),
+ * generates a marketplace with the datagen module, then lets virtual users replay the configured
+ * traffic mix over HTTP and STOMP and prints latency percentiles per endpoint.
+ * Client and server share the JVM, so the numbers include the client's own CPU use.
+ * With --loadtest.compare-threads=true the same run is repeated on platform and on virtual threads,
+ * each against a fresh in-memory database, and throughput and p99 of both are printed side by side.
+ */
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws Exception {
+        StandardEnvironment commandLine = new StandardEnvironment();
+        commandLine.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        if (!commandLine.getProperty("loadtest.compare-threads", Boolean.class, false)) {
+            runOnce(args);
+            return;
+        }
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Comparing platform and virtual threads needs a Java 21+ runtime");
+        }
+        // Data is generated into an empty database, so each run gets its own
+        Map<String, LatencyStats.Summary> platform = runOnce(withArgs(args,
+                "--spring.threads.virtual.enabled=false", "--loadtest.database=loadtest-platform"));
+        Map<String, LatencyStats.Summary> virtual = runOnce(withArgs(args,
+                "--spring.profiles.include=virtual-threads", "--loadtest.database=loadtest-virtual"));
+        ThreadModelComparison.print(System.out, platform, virtual);
+    }
+
+    private static String[] withArgs(String[] args, String... extra) {
+        String[] all = Arrays.copyOf(args, args.length + extra.length);
+        System.arraycopy(extra, 0, all, args.length, extra.length);
+        return all;
+    }
+
+    private static Map<String, LatencyStats.Summary> runOnce(String[] args) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ServerApplication.class)
+                .profiles("loadtest")
+                .run(args)) {
+            Environment environment = context.getEnvironment();
+            LoadTestSettings settings = Binder.get(environment).bindOrCreate("loadtest", LoadTestSettings.class);
+            String host = "localhost:" + environment.getProperty("local.server.port");
+
+            GeneratedMarketplace marketplace = DatagenApplication.generator(context)
+                    .generate(DatagenSettings.scaledTo(settings.getRows()));
+            // The search index was built on an empty database at startup, so rebuild it after generating
+            context.getBean(ProductService.class).buildSearchIndex();
+
+            long[] userIds = Arrays.copyOf(marketplace.customerIds(),
+                    Math.min(settings.getUsers(), marketplace.customerIds().length));
+            if (userIds.length < 2) {
+                throw new IllegalStateException("At least two virtual users are needed to exchange messages");
+            }
+            return run(context, settings, marketplace, userIds, host, Arrays.toString(environment.getActiveProfiles()));
+        }
+    }
+
+    private static Map<String, LatencyStats.Summary> run(ConfigurableApplicationContext context, LoadTestSettings settings,
+                            GeneratedMarketplace marketplace, long[] userIds, String host,
+                            String profiles) throws Exception {
+        JwtService jwtService = context.getBean(JwtService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        LatencyStats stats = new LatencyStats();
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new JacksonJsonMessageConverter());
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<StompSession> sessions = new ArrayList<>(userIds.length);
+        List<VirtualUser> users = new ArrayList<>(userIds.length);
+        for (int i = 0; i < userIds.length; i++) {
+            User user = userRepository.findById(userIds[i]).orElseThrow();
+            String token = jwtService.generateToken(user);
+
+            StompHeaders connectHeaders = new StompHeaders();
+            connectHeaders.add("Authorization", "Bearer " + token);
+            sessions.add(stompClient.connectAsync("ws://" + host + "/ws-plain", new WebSocketHttpHeaders(),
+                    connectHeaders, new MessageDeliveryListener(userIds[i], stats)).get(10, TimeUnit.SECONDS));
+
+            MarketplaceClient client = new MarketplaceClient(httpClient, "http://" + host, token, stats);
+            users.add(new VirtualUser(client, marketplace, userIds, i, settings.getMix(),
+                    settings.getThinkTime(), running));
+        }
+
+        System.out.printf("Load test: %d virtual users, %d products, warmup %s, duration %s, profiles %s, %s threads%n",
+                users.size(), marketplace.lastProductId() - marketplace.firstProductId() + 1,
+                settings.getWarmup(), settings.getDuration(), profiles,
+                context.getEnvironment().getProperty("spring.threads.virtual.enabled", Boolean.class, false)
+                        ? "virtual" : "platform");
+        ExecutorService executor = Executors.newFixedThreadPool(users.size());
+        users.forEach(executor::submit);
+
+        Thread.sleep(settings.getWarmup().toMillis());
+        stats.reset();
+        long measureStartedAt = System.nanoTime();
+        Thread.sleep(settings.getDuration().toMillis());
+        running.set(false);
+        Duration measured = Duration.ofNanos(System.nanoTime() - measureStartedAt);
+        executor.shutdown();
+        if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            executor.shutdownNow();
+        }
+
+        stats.print(System.out, measured);
+        if (settings.getHistogramDir() != null && !settings.getHistogramDir().isBlank()) {
+            stats.writeDistributions(Path.of(settings.getHistogramDir()));
+        }
+        String statsUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.management.port")
+                + "/actuator/stats";
+        System.out.println("Server stats: " + httpClient.send(
+                HttpRequest.newBuilder(URI.create(statsUrl)).build(),
+                HttpResponse.BodyHandlers.ofString()).body());
+
+        sessions.forEach(StompSession::disconnect);
+        stompClient.stop();
+        return stats.summarize(measured);
+    }
+}
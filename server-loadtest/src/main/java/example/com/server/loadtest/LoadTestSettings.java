@@ -0,0 +1,76 @@
+package example.com.server.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Size, length and traffic mix of a load test run. Bound from the loadtest.* properties.
+ */
+public class LoadTestSettings {
+
+    private int rows = 20_000;
+    private int users = 100;
+    private Duration warmup = Duration.ofSeconds(15);
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration thinkTime = Duration.ZERO;
+    private Map<Action, Integer> mix = new EnumMap<>(Action.class);
+    private String histogramDir;
+
+    // Getters and Setters
+    public int getRows() {
+        return rows;
+    }
+
+    public void setRows(int rows) {
+        this.rows = rows;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public void setUsers(int users) {
+        this.users = users;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Duration warmup) {
+        this.warmup = warmup;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Duration duration) {
+        this.duration = duration;
+    }
+
+    public Duration getThinkTime() {
+        return thinkTime;
+    }
+
+    public void setThinkTime(Duration thinkTime) {
+        this.thinkTime = thinkTime;
+    }
+
+    public Map<Action, Integer> getMix() {
+        return mix;
+    }
+
+    public void setMix(Map<Action, Integer> mix) {
+        this.mix = mix;
+    }
+
+    public String getHistogramDir() {
+        return histogramDir;
+    }
+
+    public void setHistogramDir(String histogramDir) {
+        this.histogramDir = histogramDir;
+    }
+}
@@ -0,0 +1,100 @@
+package example.com.server.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Calls the server's REST API on behalf of one user and records every call in the latency stats.
+ * Bodies are consumed but not parsed; the load test only needs timings and statuses.
+ */
+public class MarketplaceClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final String authorization;
+    private final LatencyStats stats;
+
+    public MarketplaceClient(HttpClient httpClient, String baseUrl, String token, LatencyStats stats) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.authorization = "Bearer " + token;
+        this.stats = stats;
+    }
+
+    public int browse(String category, int page) {
+        return send(Action.BROWSE, get("/api/products?availableOnly=true&size=20&page=" + page
+                + "&category=" + encode(category)));
+    }
+
+    public int search(String query) {
+        return send(Action.SEARCH, get("/api/products?availableOnly=true&size=20&search=" + encode(query)));
+    }
+
+    public int productDetail(long productId) {
+        return send(Action.PRODUCT_DETAIL, get("/api/products/" + productId));
+    }
+
+    public int addToCart(long productId) {
+        return send(Action.ADD_TO_CART, post("/api/products/" + productId + "/cart", "{\"quantity\":1}"));
+    }
+
+    public int checkout() {
+        return send(Action.CHECKOUT, post("/api/cart/checkout", ""));
+    }
+
+    public int inbox() {
+        return send(Action.INBOX, get("/api/messages/conversations?limit=50"));
+    }
+
+    public int chat(long otherUserId) {
+        return send(Action.CHAT, get("/api/messages/conversation/" + otherUserId + "?limit=50"));
+    }
+
+    public int sendMessage(long receiverId, String content) {
+        return send(Action.SEND_MESSAGE, post("/api/messages/send",
+                "{\"receiverId\":" + receiverId + ",\"content\":\"" + content + "\"}"));
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", authorization);
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private int send(Action action, HttpRequest request) {
+        long startedAt = System.nanoTime();
+        int status = 0;
+        try {
+            status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException ex) {
+            // Counted as an error below
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        stats.record(action.getEndpoint(), System.nanoTime() - startedAt, status);
+        return status;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
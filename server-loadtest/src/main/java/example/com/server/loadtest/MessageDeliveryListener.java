@@ -0,0 +1,69 @@
+package example.com.server.loadtest;
+
+import example.com.server.dto.MessageDTO;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+
+import java.lang.reflect.Type;
+
+/**
+ * STOMP session handler of one virtual user. Subscribes to /user/queue/messages and records how long
+ * each incoming load test message took from the start of its POST /api/messages/send to delivery.
+ * The send time travels in the message content, so it only works while client and server clocks are
+ * the same System.nanoTime() origin, i.e. in the same JVM.
+ */
+public class MessageDeliveryListener extends StompSessionHandlerAdapter {
+
+    public static final String ENDPOINT = "STOMP /user/queue/messages delivery";
+    private static final String CONTENT_PREFIX = "lt:";
+
+    private final long userId;
+    private final LatencyStats stats;
+
+    public MessageDeliveryListener(long userId, LatencyStats stats) {
+        this.userId = userId;
+        this.stats = stats;
+    }
+
+    /**
+     * Content of a message whose delivery latency will be measured.
+     */
+    public static String content(long sentAtNanos) {
+        return CONTENT_PREFIX + sentAtNanos;
+    }
+
+    @Override
+    public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+        session.subscribe("/user/queue/messages", this);
+    }
+
+    @Override
+    public void handleException(StompSession session, StompCommand command, StompHeaders headers,
+                                byte[] payload, Throwable exception) {
+        stats.recordError(ENDPOINT);
+    }
+
+    @Override
+    public void handleTransportError(StompSession session, Throwable exception) {
+        stats.recordError(ENDPOINT);
+    }
+
+    @Override
+    public Type getPayloadType(StompHeaders headers) {
+        return MessageDTO.class;
+    }
+
+    @Override
+    public void handleFrame(StompHeaders headers, Object payload) {
+        long receivedAt = System.nanoTime();
+        // The sender gets a copy of its own message as well; only the receiver's copy counts
+        if (!(payload instanceof MessageDTO message) || message.getReceiverId() == null || message.getReceiverId() != userId
+                || message.getContent() == null || !message.getContent().startsWith(CONTENT_PREFIX)) {
+            return;
+        }
+        long sentAt = Long.parseLong(message.getContent().substring(CONTENT_PREFIX.length()));
+        stats.record(ENDPOINT, receivedAt - sentAt, 200);
+    }
+}
@@ -0,0 +1,42 @@
+package example.com.server.loadtest;
+
+import java.io.PrintStream;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Side-by-side throughput and p99 of a platform-thread run and a virtual-thread run with the same settings.
+ */
+public final class ThreadModelComparison {
+
+    private ThreadModelComparison() {
+    }
+
+    public static void print(PrintStream out, Map<String, LatencyStats.Summary> platform,
+                             Map<String, LatencyStats.Summary> virtual) {
+        out.println();
+        out.println("Platform threads vs virtual threads");
+        out.printf("%-42s %12s %12s %8s %12s %12s %8s%n", "endpoint", "platform r/s", "virtual r/s", "change",
+                "platform p99", "virtual p99", "change");
+        Set<String> endpoints = new LinkedHashSet<>(platform.keySet());
+        endpoints.addAll(virtual.keySet());
+        for (String endpoint : endpoints) {
+            LatencyStats.Summary before = platform.get(endpoint);
+            LatencyStats.Summary after = virtual.get(endpoint);
+            if (before == null || after == null) {
+                continue;
+            }
+            out.printf("%-42s %12.1f %12.1f %8s %9.2f ms %9.2f ms %8s%n", endpoint,
+                    before.ratePerSecond(), after.ratePerSecond(), change(before.ratePerSecond(), after.ratePerSecond()),
+                    before.p99Millis(), after.p99Millis(), change(before.p99Millis(), after.p99Millis()));
+        }
+    }
+
+    private static String change(double before, double after) {
+        if (before == 0) {
+            return "-";
+        }
+        return String.format("%+.0f%%", (after - before) / before * 100);
+    }
+}
@@ -0,0 +1,111 @@
+package example.com.server.loadtest;
+
+import example.com.server.datagen.GeneratedMarketplace;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * One simulated user: repeatedly picks an action from the traffic mix and performs it, until stopped.
+ * This is a closed loop, so a slow server also slows down the offered load; latencies are those
+ * observed by users waiting for the previous response, not those of a constant request rate.
+ */
+public class VirtualUser implements Runnable {
+
+    private static final String[] SEARCH_QUERIES = {"oak", "handmade mug", "silver ring", "wool", "ceramic vase",
+            "lamp", "walnut table", "linen"};
+
+    private final MarketplaceClient client;
+    private final GeneratedMarketplace marketplace;
+    private final long[] peers;
+    private final int peerIndex;
+    private final Action[] weightedActions;
+    private final Duration thinkTime;
+    private final AtomicBoolean running;
+
+    private int itemsInCart;
+
+    /**
+     * @param peers ids of all virtual users (at least two); this user is peers[peerIndex]
+     */
+    public VirtualUser(MarketplaceClient client, GeneratedMarketplace marketplace, long[] peers, int peerIndex,
+                       Map<Action, Integer> mix, Duration thinkTime, AtomicBoolean running) {
+        this.client = client;
+        this.marketplace = marketplace;
+        this.peers = peers;
+        this.peerIndex = peerIndex;
+        this.weightedActions = expand(mix);
+        this.thinkTime = thinkTime;
+        this.running = running;
+    }
+
+    private static Action[] expand(Map<Action, Integer> mix) {
+        return mix.entrySet().stream()
+                .flatMap(entry -> Stream.generate(entry::getKey).limit(Math.max(0, entry.getValue())))
+                .toArray(Action[]::new);
+    }
+
+    @Override
+    public void run() {
+        if (weightedActions.length == 0) {
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running.get() && !Thread.currentThread().isInterrupted()) {
+            perform(weightedActions[random.nextInt(weightedActions.length)], random);
+            if (!thinkTime.isZero()) {
+                try {
+                    Thread.sleep(thinkTime.toMillis());
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void perform(Action action, ThreadLocalRandom random) {
+        switch (action) {
+            case BROWSE -> {
+                List<String> categories = marketplace.categories();
+                client.browse(categories.get(random.nextInt(categories.size())), random.nextInt(5));
+            }
+            case SEARCH -> client.search(SEARCH_QUERIES[random.nextInt(SEARCH_QUERIES.length)]);
+            case PRODUCT_DETAIL -> client.productDetail(randomProductId(random));
+            case ADD_TO_CART -> addToCart(random);
+            case CHECKOUT -> {
+                // Checking out an empty cart is only a validation error, so fill it first
+                if (itemsInCart == 0) {
+                    addToCart(random);
+                }
+                if (client.checkout() == 200) {
+                    itemsInCart = 0;
+                }
+            }
+            case INBOX -> client.inbox();
+            case CHAT -> client.chat(randomPeer(random));
+            case SEND_MESSAGE -> client.sendMessage(randomPeer(random), MessageDeliveryListener.content(System.nanoTime()));
+        }
+    }
+
+    private void addToCart(ThreadLocalRandom random) {
+        if (client.addToCart(randomProductId(random)) == 200) {
+            itemsInCart++;
+        }
+    }
+
+    private long randomProductId(ThreadLocalRandom random) {
+        return random.nextLong(marketplace.firstProductId(), marketplace.lastProductId() + 1);
+    }
+
+    /**
+     * Another virtual user, so that sent messages are delivered to an open STOMP session.
+     */
+    private long randomPeer(ThreadLocalRandom random) {
+        int index = random.nextInt(peers.length - 1);
+        return peers[index < peerIndex ? index : index + 1];
+    }
+}
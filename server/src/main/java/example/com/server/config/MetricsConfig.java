@@ -0,0 +1,162 @@
+package example.com.server.config;
+
+import example.com.server.datasource.ReadReplicaRoutingDataSource;
+import example.com.server.datasource.ReplicaPool;
+import example.com.server.service.GoogleTokenVerifier;
+import example.com.server.service.JwtService;
+import example.com.server.service.MessageService;
+import example.com.server.service.PasswordHashingService;
+import example.com.server.service.ProductService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Meters for what Spring Boot does not instrument by itself: the in-process caches, the password hashing
+ * pool, the STOMP broker and the read replica routing. HTTP requests, repository methods, the Hikari pool and Hibernate statistics
+ * come from the auto-configuration (see the management.* properties).
+ * All values are read from the components' own statistics when the registry is scraped.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder cacheMetrics(ProductService productService, MessageService messageService,
+                                    JwtService jwtService, GoogleTokenVerifier googleTokenVerifier) {
+        return registry -> {
+            bindCache(registry, "productCache", productService::getCacheStats);
+            bindCache(registry, "unreadCounters", messageService::getUnreadCacheStats);
+            bindCache(registry, "jwtCache", jwtService::getCacheStats);
+            bindCache(registry, "googleTokenCache", googleTokenVerifier::getCacheStats);
+        };
+    }
+
+    @Bean
+    public MeterBinder passwordHashingMetrics(PasswordHashingService passwordHashingService) {
+        Supplier<Map<String, Object>> stats = passwordHashingService::getStats;
+        return registry -> {
+            Gauge.builder("auth.hashing.active", stats, s -> value(s, "active"))
+                    .description("Password hashes being computed")
+                    .register(registry);
+            Gauge.builder("auth.hashing.queued", stats, s -> value(s, "queueDepth"))
+                    .description("Password hashes waiting for a thread")
+                    .register(registry);
+            FunctionCounter.builder("auth.hashing.rejected", stats, s -> value(s, "rejected"))
+                    .description("Logins and registrations turned away because the hashing queue was full")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder stompMetrics(WebSocketMessageBrokerStats brokerStats, SimpUserRegistry userRegistry,
+                                    @Qualifier("clientInboundChannel") ExecutorSubscribableChannel inboundChannel,
+                                    @Qualifier("clientOutboundChannel") ExecutorSubscribableChannel outboundChannel,
+                                    @Qualifier("brokerChannel") ExecutorSubscribableChannel brokerChannel) {
+        return registry -> {
+            SubProtocolWebSocketHandler.Stats sessions = brokerStats.getWebSocketSessionStats();
+            if (sessions != null) {
+                Gauge.builder("stomp.sessions", sessions, SubProtocolWebSocketHandler.Stats::getWebSocketSessions)
+                        .tag("transport", "websocket").register(registry);
+                Gauge.builder("stomp.sessions", sessions, SubProtocolWebSocketHandler.Stats::getHttpStreamingSessions)
+                        .tag("transport", "http-streaming").register(registry);
+                Gauge.builder("stomp.sessions", sessions, SubProtocolWebSocketHandler.Stats::getHttpPollingSessions)
+                        .tag("transport", "http-polling").register(registry);
+                FunctionCounter.builder("stomp.sessions.limit.exceeded", sessions,
+                        SubProtocolWebSocketHandler.Stats::getLimitExceededSessions).register(registry);
+                FunctionCounter.builder("stomp.sessions.transport.errors", sessions,
+                        SubProtocolWebSocketHandler.Stats::getTransportErrorSessions).register(registry);
+            }
+            Gauge.builder("stomp.users", userRegistry, SimpUserRegistry::getUserCount)
+                    .description("Users with at least one connected STOMP session")
+                    .register(registry);
+            bindChannel(registry, "clientInbound", inboundChannel);
+            bindChannel(registry, "clientOutbound", outboundChannel);
+            bindChannel(registry, "broker", brokerChannel);
+        };
+    }
+
+    /**
+     * Where connections were routed, by reason, and how many replicas are healthy.
+     * Only registered when read replicas are configured.
+     */
+    @Bean
+    public MeterBinder readReplicaMetrics(ObjectProvider<ReadReplicaRoutingDataSource> routingDataSource,
+                                          ObjectProvider<ReplicaPool> replicaPool) {
+        return registry -> {
+            routingDataSource.ifAvailable(routing -> {
+                Supplier<Map<String, Object>> stats = routing::getStats;
+                bindRoute(registry, stats, "readWrite", "read-write");
+                bindRoute(registry, stats, "replicaReads", "replica");
+                bindRoute(registry, stats, "readYourWritesReads", "read-your-writes");
+                bindRoute(registry, stats, "noReplicaReads", "no-healthy-replica");
+                bindRoute(registry, stats, "failovers", "replica-failover");
+            });
+            replicaPool.ifAvailable(pool -> Gauge.builder("datasource.replicas.healthy", pool,
+                            ReplicaPool::getHealthyCount)
+                    .register(registry));
+        };
+    }
+
+    private static void bindRoute(MeterRegistry registry, Supplier<Map<String, Object>> stats, String key,
+                                  String route) {
+        FunctionCounter.builder("datasource.routing.connections", stats, s -> value(s, key))
+                .tag("route", route)
+                .register(registry);
+    }
+
+    /**
+     * Queue depth and busy threads of a channel's executor. Channels without a pooled executor
+     * (synchronous, or virtual threads) have no queue and get no gauges; channels sharing an executor
+     * report the same values.
+     */
+    private static void bindChannel(MeterRegistry registry, String channel, ExecutorSubscribableChannel subscribable) {
+        if (!(subscribable.getExecutor() instanceof ThreadPoolTaskExecutor executor)) {
+            return;
+        }
+        Gauge.builder("stomp.channel.queued", executor, ThreadPoolTaskExecutor::getQueueSize)
+                .tag("channel", channel)
+                .description("Messages waiting for a thread of the channel's executor")
+                .register(registry);
+        Gauge.builder("stomp.channel.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("channel", channel)
+                .register(registry);
+    }
+
+    /**
+     * Register the standard Micrometer cache meters (cache.size, cache.gets, cache.evictions) for one of our caches.
+     */
+    private static void bindCache(MeterRegistry registry, String cache, Supplier<Map<String, Object>> stats) {
+        Gauge.builder("cache.size", stats, s -> value(s, "size"))
+                .tag("cache", cache)
+                .register(registry);
+        FunctionCounter.builder("cache.gets", stats, s -> value(s, "hits"))
+                .tag("cache", cache).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", stats, s -> value(s, "misses"))
+                .tag("cache", cache).tag("result", "miss")
+                .register(registry);
+        if (stats.get().containsKey("evictions")) {
+            FunctionCounter.builder("cache.evictions", stats, s -> value(s, "evictions"))
+                    .tag("cache", cache)
+                    .register(registry);
+        }
+    }
+
+    private static double value(Supplier<Map<String, Object>> stats, String key) {
+        Object value = stats.get().get(key);
+        return value instanceof Number number ? number.doubleValue() : Double.NaN;
+    }
+}
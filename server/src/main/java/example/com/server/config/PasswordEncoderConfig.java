@@ -1,5 +1,8 @@
 package example.com.server.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -8,9 +11,48 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Configuration
 public class PasswordEncoderConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(PasswordEncoderConfig.class);
+
+    /**
+     * Cost used unless auth.bcrypt.strength says otherwise: about 250 ms per hash on a typical
+     * server core, which is what a login costs the hashing pool.
+     */
+    public static final int DEFAULT_STRENGTH = 12;
+
+    private static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 14;
+
+    /**
+     * BCrypt encoder with the fixed cost auth.bcrypt.strength. With auth.bcrypt.calibrate=true the cost is
+     * instead calibrated at startup to the highest one (10 to 14) whose hash still takes at most
+     * auth.bcrypt.target-ms on this machine. Stored hashes with a different cost are rehashed on the next
+     * successful login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.bcrypt.strength:" + DEFAULT_STRENGTH + "}") int strength,
+                                           @Value("${auth.bcrypt.calibrate:false}") boolean calibrate,
+                                           @Value("${auth.bcrypt.target-ms:250}") long targetMillis) {
+        int effectiveStrength = calibrate ? calibrateStrength(targetMillis) : strength;
+        log.info("Using BCrypt strength {}", effectiveStrength);
+        return new ConfiguredCostBCryptPasswordEncoder(effectiveStrength);
     }
-}
 
+    private static int calibrateStrength(long targetMillis) {
+        int strength = MIN_STRENGTH;
+        long millis = measure(strength);
+        // Each extra round doubles the cost, so stop before the next one would exceed the target
+        while (strength < MAX_STRENGTH && millis * 2 <= targetMillis) {
+            strength++;
+            millis = measure(strength);
+        }
+        return strength;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode("calibration"); // warm-up
+        long start = System.nanoTime();
+        encoder.encode("calibration");
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,92 @@
+package example.com.server.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import example.com.server.datasource.ReadReplicaRoutingDataSource;
+import example.com.server.datasource.ReadYourWritesFilter;
+import example.com.server.datasource.ReadYourWritesTracker;
+import example.com.server.datasource.ReplicaPool;
+import example.com.server.datasource.RoutingDataSourceProperties;
+import example.com.server.service.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas (see the replicas profile): replaces the auto-configured data source with one that sends
+ * read-only transactions to the replicas. Without datasource.routing.replicas the auto-configured
+ * single data source is used unchanged.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.routing.replicas[0].url")
+@EnableConfigurationProperties(RoutingDataSourceProperties.class)
+public class ReadReplicaConfig {
+
+    /**
+     * The primary, configured like the auto-configured data source (spring.datasource.*).
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ReplicaPool replicaPool(RoutingDataSourceProperties routing, DataSourceProperties primary,
+                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        List<HikariDataSource> dataSources = new ArrayList<>();
+        for (RoutingDataSourceProperties.Replica replica : routing.getReplicas()) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + (dataSources.size() + 1));
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : primary.determineUsername());
+            dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : primary.determinePassword());
+            dataSource.setMaximumPoolSize(routing.getReplicaPoolSize());
+            dataSource.setConnectionTimeout(routing.getReplicaConnectionTimeout().toMillis());
+            dataSource.setReadOnly(true);
+            // A replica that is down at startup is only marked unhealthy
+            dataSource.setInitializationFailTimeout(-1);
+            meterRegistry.ifAvailable(registry ->
+                    dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            dataSources.add(dataSource);
+        }
+        return new ReplicaPool(dataSources, routing.getHealthCheckInterval());
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(RoutingDataSourceProperties routing) {
+        return new ReadYourWritesTracker(routing.getReadYourWritesWindow());
+    }
+
+    @Bean
+    public ReadReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource, ReplicaPool replicaPool,
+                                                          ReadYourWritesTracker readYourWritesTracker) {
+        return new ReadReplicaRoutingDataSource(primaryDataSource, replicaPool, readYourWritesTracker);
+    }
+
+    /**
+     * The data source used by JPA, JdbcTemplate and Flyway. Connections are only fetched on the first
+     * statement, when the read-only flag of the transaction is known.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(JwtService jwtService) {
+        return new ReadYourWritesFilter(jwtService);
+    }
+}
@@ -0,0 +1,96 @@
+package example.com.server.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Watches the JFR jdk.VirtualThreadPinned event while the application runs on virtual threads and
+ * logs where a virtual thread stayed pinned to its carrier (e.g. blocking inside a synchronized block)
+ * for longer than the threshold. Each pinning site is attributed to the first frame in our own code.
+ * <p>
+ * Our own code does not block while holding a monitor: the in-process caches use a ReentrantLock
+ * (ProductCache), a read-write lock (ProductSearchIndex) or compare-and-set (UnreadCounterCache), and the
+ * ConcurrentHashMap compute calls only lock a bin for non-blocking work. That does not make the mode
+ * pin-free: before JDK 24 any blocking under synchronized pins the carrier, and libraries we call do
+ * that, e.g. JDBC drivers around socket reads and connection pools while handing out connections.
+ * So a reported site is usually where our code called into such a library, not a lock of our own.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningDetector.class);
+
+    private static final String APPLICATION_PACKAGE = "example.com.server.";
+
+    private final Duration threshold;
+    private final Map<String, LongAdder> pinnedBySite = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningDetector(@Value("${virtual-threads.pinning.threshold:PT20MS}") Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        String site = applicationFrame(event.getStackTrace());
+        pinnedBySite.computeIfAbsent(site, k -> new LongAdder()).increment();
+        log.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), site);
+    }
+
+    private static String applicationFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(APPLICATION_PACKAGE)) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        // Not in our code: report the innermost frame
+        RecordedFrame top = frames.isEmpty() ? null : frames.get(0);
+        return top == null ? "unknown" : top.getMethod().getType().getName() + "." + top.getMethod().getName();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("thresholdMillis", threshold.toMillis());
+        Map<String, Long> sites = new LinkedHashMap<>();
+        pinnedBySite.forEach((site, count) -> sites.put(site, count.sum()));
+        stats.put("pinnedBySite", sites);
+        return stats;
+    }
+}
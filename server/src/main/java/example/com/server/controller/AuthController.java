@@ -1,6 +1,5 @@
 package example.com.server.controller;
 
-import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.gson.Gson;
 import example.com.server.model.User;
 import example.com.server.service.AuthService;
@@ -16,6 +15,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -41,6 +41,9 @@ public class AuthController {
             User created = authService.register(user);
             String jwt = jwtService.generateToken(created);
             return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("token", jwt));
+        } catch (RejectedExecutionException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Server is busy, try again later"));
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", ex.getMessage()));
@@ -59,6 +62,9 @@ public class AuthController {
             response.put("token", jwt);
             response.put("user", gson.toJson(user.get()));
             return ResponseEntity.status(HttpStatus.OK).body(response);
+        } catch (RejectedExecutionException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Server is busy, try again later"));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
         }
@@ -70,14 +76,14 @@ public class AuthController {
     }
 
     @PostMapping("/google")
-    public ResponseEntity<?> authenticateWithGoogle(@RequestBody Map<String, String> credentials) throws Exception {
+    public ResponseEntity<?> authenticateWithGoogle(@RequestBody Map<String, String> credentials) {
         String token = credentials.get("token");
 
         try {
-            GoogleIdToken.Payload payload = verifier.verify(token);
-            String email = payload.getEmail();
-            String login = (String) payload.get("name"); // имя записывать не в логин а в переменную fullname
-            String googleId = payload.getSubject();
+            GoogleTokenVerifier.GoogleIdentity identity = verifier.verify(token);
+            String email = identity.email();
+            String login = identity.name(); // имя записывать не в логин а в переменную fullname
+            String googleId = identity.subject();
 
             User user = userService.createOrGetUser(email, login, googleId);
 
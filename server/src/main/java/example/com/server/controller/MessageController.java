@@ -2,15 +2,18 @@ package example.com.server.controller;
 
 import example.com.server.dto.ConversationDTO;
 import example.com.server.dto.MessageDTO;
+import example.com.server.dto.PageCursor;
 import example.com.server.dto.SendMessageRequest;
 import example.com.server.service.JwtService;
 import example.com.server.service.MessageService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -19,6 +22,10 @@ import java.util.Map;
 @CrossOrigin(origins = "*") // Настройте правильный CORS для продакшена
 public class MessageController {
 
+    private static final int MAX_CONVERSATIONS_LIMIT = 200;
+    private static final int DEFAULT_MESSAGES_LIMIT = 50;
+    private static final int MAX_MESSAGES_LIMIT = 200;
+
     @Autowired
     private MessageService messageService;
 
@@ -26,12 +33,13 @@ public class MessageController {
     private JwtService jwtService;
 
     /**
-     * Получить список всех диалогов пользователя
-     * GET /api/messages/conversations
+     * Получить список диалогов пользователя (самые свежие, не более limit)
+     * GET /api/messages/conversations?limit=50
      */
     @GetMapping("/conversations")
     public ResponseEntity<?> getUserConversations(
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestParam(defaultValue = "50") int limit) {
 
         Long userId = jwtService.getUserIdFromToken(authorization);
         if (userId == null) {
@@ -39,18 +47,28 @@ public class MessageController {
                     .body(Map.of("error", "Authentication required"));
         }
 
-        List<ConversationDTO> conversations = messageService.getUserConversations(userId);
+        if (limit < 1 || limit > MAX_CONVERSATIONS_LIMIT) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "limit must be between 1 and " + MAX_CONVERSATIONS_LIMIT));
+        }
+
+        List<ConversationDTO> conversations = messageService.getUserConversations(userId, limit);
         return ResponseEntity.ok(Map.of("conversations", conversations));
     }
 
     /**
      * Получить переписку с конкретным пользователем
      * GET /api/messages/conversation/{otherUserId}
+     * С параметрами limit и/или before возвращает одну страницу: limit самых свежих сообщений,
+     * которые старше курсора before. Курсор для следующей (более старой) страницы - nextBefore.
+     * GET /api/messages/conversation/{otherUserId}?limit=50&before={nextBefore}
      */
     @GetMapping("/conversation/{otherUserId}")
     public ResponseEntity<?> getConversation(
             @RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long otherUserId) {
+            @PathVariable Long otherUserId,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Integer limit) {
 
         Long userId = jwtService.getUserIdFromToken(authorization);
         if (userId == null) {
@@ -59,11 +77,33 @@ public class MessageController {
         }
 
         try {
-            List<MessageDTO> messages = messageService.getConversation(userId, otherUserId);
-            return ResponseEntity.ok(Map.of(
-                    "otherUserId", otherUserId,
-                    "messages", messages
-            ));
+            if (before == null && limit == null) {
+                List<MessageDTO> messages = messageService.getConversation(userId, otherUserId);
+                return ResponseEntity.ok(Map.of(
+                        "otherUserId", otherUserId,
+                        "messages", messages
+                ));
+            }
+
+            int pageSize = limit != null ? limit : DEFAULT_MESSAGES_LIMIT;
+            if (pageSize < 1 || pageSize > MAX_MESSAGES_LIMIT) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "limit must be between 1 and " + MAX_MESSAGES_LIMIT));
+            }
+            PageCursor cursor = before == null || before.isBlank() ? null : PageCursor.decode(before);
+            Slice<MessageDTO> page = messageService.getConversationPage(userId, otherUserId, cursor, pageSize);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("otherUserId", otherUserId);
+            response.put("messages", page.getContent());
+            response.put("hasMore", page.hasNext());
+            if (page.hasNext()) {
+                MessageDTO oldest = page.getContent().get(0);
+                response.put("nextBefore", new PageCursor(oldest.getCreatedAt(), oldest.getId()).encode());
+            } else {
+                response.put("nextBefore", null);
+            }
+            return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -135,8 +175,11 @@ public class MessageController {
         }
 
         try {
-            messageService.markConversationAsRead(userId, otherUserId);
-            return ResponseEntity.ok(Map.of("message", "Conversation marked as read"));
+            int markedCount = messageService.markConversationAsRead(userId, otherUserId);
+            return ResponseEntity.ok(Map.of(
+                    "message", "Conversation marked as read",
+                    "markedCount", markedCount
+            ));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
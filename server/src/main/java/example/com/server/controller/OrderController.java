@@ -1,26 +1,45 @@
 package example.com.server.controller;
 
+import example.com.server.dto.OrderDTO;
+import example.com.server.dto.OrderFilter;
+import example.com.server.dto.PageCursor;
 import example.com.server.model.Order;
 import example.com.server.service.OrderService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
     private final OrderService orderService;
+    private final JsonMapper jsonMapper;
+    // Each running export holds a connection and a transaction until its last row is written
+    private final Semaphore exportPermits;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, JsonMapper jsonMapper,
+                           @Value("${orders.export.max-concurrent:2}") int maxConcurrentExports) {
         this.orderService = orderService;
+        this.jsonMapper = jsonMapper;
+        this.exportPermits = new Semaphore(maxConcurrentExports);
     }
 
     @PostMapping
@@ -36,39 +55,101 @@ public class OrderController {
                 return ResponseEntity.badRequest().body(Map.of("error", "userId is required"));
             }
             Order order = orderService.createOrder(userId, description);
-            return ResponseEntity.status(HttpStatus.CREATED).body(order);
+            return ResponseEntity.status(HttpStatus.CREATED).body(OrderDTO.fromEntity(order));
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", ex.getMessage()));
         }
     }
 
+    /**
+     * List orders with optional filters, at most size orders (capped at 200) per request.
+     * Both modes answer with the same page object: content, size, hasNext and nextCursor.
+     * Without a cursor this is the requested page (page/size) in the given sort; nextCursor is only
+     * set for the default newest-first sort. With a cursor (as returned in nextCursor) the next page,
+     * newest first, is fetched by keyset pagination; an empty cursor starts from the newest order.
+     * Clients keep requesting until hasNext is false.
+     */
     @GetMapping
-    public List<Order> getOrders(
+    public ResponseEntity<?> getOrders(
             @RequestParam(required = false) Long userId,
             @RequestParam(required = false) Order.Status status,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdAfter,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdBefore,
-            @RequestParam(required = false) String sort) {
-        return orderService.findOrders(userId, status, search, createdAfter, createdBefore, sort);
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String cursor) {
+        OrderFilter filter = new OrderFilter(userId, status, search, createdAfter, createdBefore);
+        return listOrders(filter, sort, page, size, cursor);
+    }
+
+    /**
+     * Export all orders matching the filters as NDJSON, one order per line, newest first.
+     * Orders are written while they are read from the database, so any number of them can be exported.
+     * At most orders.export.max-concurrent exports run at a time; further ones get 503 right away.
+     */
+    @GetMapping("/export")
+    public void exportOrders(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Order.Status status,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdAfter,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdBefore,
+            HttpServletResponse response) throws IOException {
+        if (!exportPermits.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            jsonMapper.writeValue(response.getOutputStream(), Map.of("error", "Server is busy, try again later"));
+            return;
+        }
+        try {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            OutputStream out = response.getOutputStream();
+            try {
+                orderService.exportOrders(new OrderFilter(userId, status, search, createdAfter, createdBefore),
+                        order -> {
+                            try {
+                                out.write(jsonMapper.writeValueAsBytes(order));
+                                out.write('\n');
+                            } catch (IOException ex) {
+                                throw new UncheckedIOException(ex);
+                            }
+                        });
+            } catch (UncheckedIOException ex) {
+                // The client went away; the query has been closed by now
+                throw ex.getCause();
+            }
+            out.flush();
+        } finally {
+            exportPermits.release();
+        }
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<?> getOrderById(@PathVariable Long id) {
         return orderService.findById(id)
-                .map(ResponseEntity::ok)
+                .map(order -> ResponseEntity.ok(OrderDTO.fromEntity(order)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/user/{userId}")
-    public List<Order> getOrdersByUser(@PathVariable Long userId) {
-        return orderService.findByUserId(userId);
+    public ResponseEntity<?> getOrdersByUser(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String cursor) {
+        return listOrders(OrderFilter.byUser(userId), null, page, size, cursor);
     }
 
     @GetMapping("/status/{status}")
-    public List<Order> getOrdersByStatus(@PathVariable Order.Status status) {
-        return orderService.findByStatus(status);
+    public ResponseEntity<?> getOrdersByStatus(
+            @PathVariable Order.Status status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String cursor) {
+        return listOrders(OrderFilter.byStatus(status), null, page, size, cursor);
     }
 
     @PatchMapping("/{id}/status")
@@ -80,7 +161,7 @@ public class OrderController {
             }
             Order.Status status = Order.Status.valueOf(statusStr.toUpperCase());
             Order order = orderService.updateStatus(id, status);
-            return ResponseEntity.ok(order);
+            return ResponseEntity.ok(OrderDTO.fromEntity(order));
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", ex.getMessage()));
@@ -96,7 +177,7 @@ public class OrderController {
                 status = Order.Status.valueOf(body.get("status").toString().toUpperCase());
             }
             Order order = orderService.updateOrder(id, description, status);
-            return ResponseEntity.ok(order);
+            return ResponseEntity.ok(OrderDTO.fromEntity(order));
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", ex.getMessage()));
@@ -113,4 +194,42 @@ public class OrderController {
                     .body(Map.of("error", ex.getMessage()));
         }
     }
+
+    private ResponseEntity<?> listOrders(OrderFilter filter, String sort, int page, int size, String cursor) {
+        try {
+            boolean defaultSort = orderService.isDefaultSort(sort);
+            if (cursor == null) {
+                Slice<Order> orders = orderService.findOrders(filter, sort, page, size);
+                Map<String, Object> response = pageResponse(orders, defaultSort);
+                response.put("page", orders.getNumber());
+                return ResponseEntity.ok(response);
+            }
+            if (!defaultSort) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "Cursor pagination only supports sort=createdAt,desc"));
+            }
+            PageCursor position = cursor.isBlank() ? null : PageCursor.decode(cursor);
+            return ResponseEntity.ok(pageResponse(orderService.findOrdersAfter(filter, position, size), true));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    private static Map<String, Object> pageResponse(Slice<Order> orders, boolean withCursor) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", toDtos(orders.getContent()));
+        response.put("size", orders.getSize());
+        response.put("hasNext", orders.hasNext());
+        response.put("nextCursor", orders.hasNext() && withCursor ? nextCursor(orders.getContent()) : null);
+        return response;
+    }
+
+    private static String nextCursor(List<Order> orders) {
+        Order last = orders.get(orders.size() - 1);
+        return new PageCursor(last.getCreatedAt(), last.getId()).encode();
+    }
+
+    private static List<OrderDTO> toDtos(List<Order> orders) {
+        return orders.stream().map(OrderDTO::fromEntity).toList();
+    }
 }
@@ -1,7 +1,10 @@
 package example.com.server.controller;
 
 import example.com.server.dto.MessageDTO;
+import example.com.server.dto.PageCursor;
+import example.com.server.dto.ProductListItem;
 import example.com.server.model.CartItem;
+import example.com.server.model.Order;
 import example.com.server.model.Product;
 import example.com.server.service.CartService;
 import example.com.server.service.JwtService;
@@ -11,11 +14,13 @@ import example.com.server.service.ProductService;
 import example.com.server.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -41,16 +46,40 @@ public class ProductController {
         this.messageService = messageService;
     }
 
+    /**
+     * List products with optional filters.
+     * Without a cursor this is offset pagination (page/size) with total counts.
+     * With a cursor (as returned in nextCursor) the next page is fetched by keyset pagination,
+     * which stays fast however deep the client scrolls; an empty cursor starts from the newest product.
+     */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllProducts(
+    public ResponseEntity<?> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) Long sellerId,
-            @RequestParam(defaultValue = "false") boolean availableOnly) {
+            @RequestParam(defaultValue = "false") boolean availableOnly,
+            @RequestParam(required = false) String cursor) {
+
+        if (cursor != null) {
+            try {
+                PageCursor position = cursor.isBlank() ? null : PageCursor.decode(cursor);
+                Slice<ProductListItem> products = productService.findFeedAfter(category, search, sellerId, availableOnly,
+                        position, size);
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("content", products.getContent());
+                response.put("size", products.getSize());
+                response.put("hasNext", products.hasNext());
+                response.put("nextCursor", products.hasNext() ? nextCursor(products.getContent()) : null);
+                return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+            }
+        }
 
-        Page<Product> products = productService.findAllWithFilters(category, search, sellerId, availableOnly, page, size);
+        Page<ProductListItem> products = productService.findAllWithFilters(category, search, sellerId, availableOnly, page, size);
 
         Map<String, Object> response = new HashMap<>();
         response.put("content", products.getContent());
@@ -58,6 +87,9 @@ public class ProductController {
         response.put("totalPages", products.getTotalPages());
         response.put("page", products.getNumber());
         response.put("size", products.getSize());
+        // Search results are ranked by relevance, which has no stable keyset to continue from
+        boolean searching = search != null && !search.isEmpty();
+        response.put("nextCursor", products.hasNext() && !searching ? nextCursor(products.getContent()) : null);
 
         return ResponseEntity.ok(response);
     }
@@ -66,7 +98,7 @@ public class ProductController {
     public ResponseEntity<?> getProductById(@PathVariable Long id) {
         Optional<Product> product = productService.findById(id);
         if (product.isPresent()) {
-            return ResponseEntity.ok(productToMap(product.get()));
+            return ResponseEntity.ok(ProductListItem.fromEntity(product.get()));
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", "Product not found"));
@@ -100,7 +132,7 @@ public class ProductController {
             }
 
             Product product = productService.createProduct(userId, name, description, price, category, imageUrl);
-            return ResponseEntity.status(HttpStatus.CREATED).body(productToMap(product));
+            return ResponseEntity.status(HttpStatus.CREATED).body(ProductListItem.fromEntity(product));
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", ex.getMessage()));
@@ -145,7 +177,7 @@ public class ProductController {
             }
 
             Product updatedProduct = productService.updateProduct(id, name, description, price, category, isAvailable);
-            return ResponseEntity.ok(productToMap(updatedProduct));
+            return ResponseEntity.ok(ProductListItem.fromEntity(updatedProduct));
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", ex.getMessage()));
@@ -241,16 +273,21 @@ public class ProductController {
 
         Product product = productOpt.get();
         if (!product.getIsAvailable()) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            return ResponseEntity.status(HttpStatus.CONFLICT)
                     .body(Map.of("error", "Product is not available"));
         }
 
-        // Create an order for this product
-        String description = "Purchase: " + product.getName() + " (ID: " + product.getId() + ")";
-        var order = orderService.createOrder(userId, description);
-
-        // Mark product as sold (not available)
-        productService.updateProduct(id, null, null, null, null, false);
+        // Reserve the product and create the order; only one concurrent buyer can win
+        Order order;
+        try {
+            order = orderService.purchaseProduct(userId, product);
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", ex.getMessage()));
+        }
 
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Purchase successful");
@@ -324,18 +361,11 @@ public class ProductController {
         }
     }
 
-    private Map<String, Object> productToMap(Product product) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id", product.getId());
-        map.put("name", product.getName());
-        map.put("description", product.getDescription());
-        map.put("price", product.getPrice());
-        map.put("imageUrl", product.getImageUrl());
-        map.put("sellerId", product.getSeller().getId());
-        map.put("sellerName", product.getSeller().getFullName() != null ? product.getSeller().getFullName() : product.getSeller().getLogin());
-        map.put("category", product.getCategory());
-        map.put("createdAt", product.getCreatedAt());
-        map.put("isAvailable", product.getIsAvailable());
-        return map;
+    private String nextCursor(List<ProductListItem> products) {
+        if (products.isEmpty()) {
+            return null;
+        }
+        ProductListItem last = products.get(products.size() - 1);
+        return new PageCursor(last.createdAt(), last.id()).encode();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,107 @@
+package example.com.server.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends read-only transactions to a read replica and everything else to the primary.
+ * Reads still go to the primary when they were requested there explicitly (cache loaders), when the current
+ * user has just written (see {@link ReadYourWritesTracker})
+ * or no replica is healthy, and a replica that fails to hand out a connection is marked down and the read
+ * retried on the primary.
+ * The decision needs the transaction's read-only flag, which is only known after the transaction manager
+ * asked for a connection, so this data source must be wrapped in a LazyConnectionDataSourceProxy.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final ReplicaPool replicas;
+    private final ReadYourWritesTracker readYourWrites;
+
+    // Connections outside read-only transactions, which always use the primary
+    private final LongAdder readWrite = new LongAdder();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder requestedPrimaryReads = new LongAdder();
+    private final LongAdder readYourWritesReads = new LongAdder();
+    private final LongAdder noReplicaReads = new LongAdder();
+    private final LongAdder failovers = new LongAdder();
+
+    public ReadReplicaRoutingDataSource(DataSource primary, ReplicaPool replicas,
+                                        ReadYourWritesTracker readYourWrites) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.readYourWrites = readYourWrites;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (ReplicaPool.Replica replica : replicas.getReplicas()) {
+            targets.put(replica.name(), replica.dataSource());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readWrite.increment();
+            readYourWrites.onWriteTransaction();
+            return PRIMARY;
+        }
+        if (ReadYourWritesTracker.isPrimaryRequested()) {
+            requestedPrimaryReads.increment();
+            return PRIMARY;
+        }
+        if (readYourWrites.mustReadFromPrimary()) {
+            readYourWritesReads.increment();
+            return PRIMARY;
+        }
+        ReplicaPool.Replica replica = replicas.choose();
+        if (replica == null) {
+            noReplicaReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        return replica.name();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        DataSource target = getResolvedDataSources().get(key);
+        if (PRIMARY.equals(key)) {
+            return target.getConnection();
+        }
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            replicas.markDown((String) key, e);
+            failovers.increment();
+            return primary.getConnection();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("readWrite", readWrite.sum());
+        stats.put("replicaReads", replicaReads.sum());
+        stats.put("requestedPrimaryReads", requestedPrimaryReads.sum());
+        stats.put("readYourWritesReads", readYourWritesReads.sum());
+        stats.put("noReplicaReads", noReplicaReads.sum());
+        stats.put("failovers", failovers.sum());
+        stats.put("readYourWritesUsers", readYourWrites.getTrackedUsers());
+        stats.put("replicas", replicas.getStats());
+        return stats;
+    }
+}
@@ -0,0 +1,43 @@
+package example.com.server.datasource;
+
+import example.com.server.service.JwtService;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Makes the authenticated user of a request known to {@link ReadYourWritesTracker}. The token is only
+ * read here, not enforced: controllers still reject requests without a valid one.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final JwtService jwtService;
+
+    public ReadYourWritesFilter(JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReadYourWritesTracker.setCurrentUser(userId(request.getHeader("Authorization")));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWritesTracker.clearCurrentUser();
+        }
+    }
+
+    private Long userId(String authorization) {
+        try {
+            return jwtService.getUserIdFromToken(authorization);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package example.com.server.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Remembers which users committed a write recently, so that their own reads are served by the primary
+ * until the replicas have caught up (read-your-writes). The user of the current thread is set per request
+ * by {@link ReadYourWritesFilter}; work without a user (startup, background jobs) is not tracked.
+ * The window is kept in memory, so it only holds while the user's requests reach the same server instance.
+ * Reads that fill a cache can also be sent to the primary explicitly with {@link #readFromPrimary}.
+ */
+public class ReadYourWritesTracker {
+
+    private static final ThreadLocal<Long> CURRENT_USER = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARY_REQUESTED = new ThreadLocal<>();
+
+    // Expired entries are swept once the map grows past this size
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+    private final ConcurrentHashMap<Long, Long> lastWriteNanos = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public static void setCurrentUser(Long userId) {
+        if (userId != null) {
+            CURRENT_USER.set(userId);
+        } else {
+            CURRENT_USER.remove();
+        }
+    }
+
+    public static void clearCurrentUser() {
+        CURRENT_USER.remove();
+    }
+
+    /**
+     * Run a read against the primary even though its transaction is read-only. Meant for cache loaders:
+     * a lagging replica would otherwise put a stale value into the cache, where it outlives the replica lag.
+     * The routing is decided when a connection is taken, so the read must open its own transaction
+     * rather than run inside one that already holds a connection.
+     */
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        if (PRIMARY_REQUESTED.get() != null) {
+            return read.get();
+        }
+        PRIMARY_REQUESTED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_REQUESTED.remove();
+        }
+    }
+
+    static boolean isPrimaryRequested() {
+        return PRIMARY_REQUESTED.get() != null;
+    }
+
+    /**
+     * Called when the current transaction takes a connection to the primary: once it commits,
+     * the current user reads from the primary for the length of the window.
+     */
+    void onWriteTransaction() {
+        Long userId = CURRENT_USER.get();
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        // Registered once per transaction, however many connections it takes
+        TransactionSynchronizationManager.bindResource(this, userId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordWrite(userId);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ReadYourWritesTracker.this);
+            }
+        });
+    }
+
+    void recordWrite(Long userId) {
+        lastWriteNanos.put(userId, System.nanoTime());
+        if (lastWriteNanos.size() > SWEEP_THRESHOLD) {
+            long now = System.nanoTime();
+            lastWriteNanos.values().removeIf(written -> now - written >= windowNanos);
+        }
+    }
+
+    /**
+     * Whether the current user committed a write within the window.
+     */
+    boolean mustReadFromPrimary() {
+        Long userId = CURRENT_USER.get();
+        if (userId == null) {
+            return false;
+        }
+        Long written = lastWriteNanos.get(userId);
+        if (written == null) {
+            return false;
+        }
+        if (System.nanoTime() - written < windowNanos) {
+            return true;
+        }
+        lastWriteNanos.remove(userId, written);
+        return false;
+    }
+
+    public int getTrackedUsers() {
+        return lastWriteNanos.size();
+    }
+}
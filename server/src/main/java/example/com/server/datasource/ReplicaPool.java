@@ -0,0 +1,176 @@
+package example.com.server.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The read replicas and their health. Reads go to the healthy replica with the fewest connections in use;
+ * a replica is taken out when a connection to it fails and put back once a background check succeeds.
+ */
+public class ReplicaPool implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaPool.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final List<Replica> replicas;
+    private final Duration healthCheckInterval;
+    private final AtomicInteger nextStart = new AtomicInteger();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-health-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static final class Replica {
+        private final String name;
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy = true;
+        private final LongAdder connections = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        private Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        String name() {
+            return name;
+        }
+
+        DataSource dataSource() {
+            return dataSource;
+        }
+
+        private int activeConnections() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool != null ? pool.getActiveConnections() : 0;
+        }
+    }
+
+    public ReplicaPool(List<HikariDataSource> dataSources, Duration healthCheckInterval) {
+        List<Replica> list = new ArrayList<>(dataSources.size());
+        for (HikariDataSource dataSource : dataSources) {
+            list.add(new Replica(dataSource.getPoolName(), dataSource));
+        }
+        this.replicas = List.copyOf(list);
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    public void start() {
+        long interval = healthCheckInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::checkHealth, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * The healthy replica with the fewest connections in use, or null when none is healthy.
+     * Ties go round-robin, so an idle cluster still spreads the load.
+     */
+    Replica choose() {
+        int size = replicas.size();
+        int start = Math.floorMod(nextStart.getAndIncrement(), size);
+        Replica best = null;
+        int bestActive = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            int active = replica.activeConnections();
+            if (active < bestActive) {
+                best = replica;
+                bestActive = active;
+            }
+        }
+        if (best != null) {
+            best.connections.increment();
+        }
+        return best;
+    }
+
+    void markDown(String name, Exception cause) {
+        for (Replica replica : replicas) {
+            if (replica.name.equals(name)) {
+                markDown(replica, cause);
+            }
+        }
+    }
+
+    private void markDown(Replica replica, Exception cause) {
+        replica.failures.increment();
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Read replica {} is down, reads go to the other replicas or the primary: {}",
+                    replica.name, cause.toString());
+        }
+    }
+
+    /**
+     * Try a connection to every replica and update its health.
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (Exception e) {
+                healthy = false;
+            }
+            if (healthy && !replica.healthy) {
+                log.info("Read replica {} is back", replica.name);
+            } else if (!healthy && replica.healthy) {
+                log.warn("Read replica {} failed its health check", replica.name);
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    public int getHealthyCount() {
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    public List<Map<String, Object>> getStats() {
+        List<Map<String, Object>> stats = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", replica.name);
+            entry.put("healthy", replica.healthy);
+            entry.put("activeConnections", replica.activeConnections());
+            entry.put("connections", replica.connections.sum());
+            entry.put("failures", replica.failures.sum());
+            stats.add(entry);
+        }
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+}
@@ -0,0 +1,99 @@
+package example.com.server.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas that read-only transactions are routed to (datasource.routing.*).
+ * Username and password of a replica default to those of the primary (spring.datasource.*).
+ */
+@ConfigurationProperties("datasource.routing")
+public class RoutingDataSourceProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    // Connections per replica pool
+    private int replicaPoolSize = 10;
+
+    // How long a read waits for a replica connection before the replica is marked down
+    private Duration replicaConnectionTimeout = Duration.ofSeconds(1);
+
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    // After a user's own write commits, their reads stay on the primary this long (should exceed replica lag)
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    public static class Replica {
+
+        private String url;
+        private String username;
+        private String password;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+    public int getReplicaPoolSize() {
+        return replicaPoolSize;
+    }
+
+    public void setReplicaPoolSize(int replicaPoolSize) {
+        this.replicaPoolSize = replicaPoolSize;
+    }
+
+    public Duration getReplicaConnectionTimeout() {
+        return replicaConnectionTimeout;
+    }
+
+    public void setReplicaConnectionTimeout(Duration replicaConnectionTimeout) {
+        this.replicaConnectionTimeout = replicaConnectionTimeout;
+    }
+
+    public Duration getHealthCheckInterval() {
+        return healthCheckInterval;
+    }
+
+    public void setHealthCheckInterval(Duration healthCheckInterval) {
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    public Duration getReadYourWritesWindow() {
+        return readYourWritesWindow;
+    }
+
+    public void setReadYourWritesWindow(Duration readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+}
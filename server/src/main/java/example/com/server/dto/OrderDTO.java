@@ -0,0 +1,151 @@
+package example.com.server.dto;
+
+import example.com.server.model.Order;
+import example.com.server.model.User;
+
+import java.time.Instant;
+
+/**
+ * JSON shape of an order in API responses. The buyer is reduced to its public fields,
+ * so the order must be loaded together with its user (see OrderRepository).
+ */
+public class OrderDTO {
+
+    private Long id;
+    private Long userId;
+    private UserRef user;
+    private String description;
+    private Order.Status status;
+    private Instant createdAt;
+
+    public static class UserRef {
+
+        private Long id;
+        private String login;
+        private String fullName;
+        private String email;
+        private User.Role role;
+
+        public UserRef() {
+        }
+
+        public UserRef(Long id, String login, String fullName, String email, User.Role role) {
+            this.id = id;
+            this.login = login;
+            this.fullName = fullName;
+            this.email = email;
+            this.role = role;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getLogin() {
+            return login;
+        }
+
+        public void setLogin(String login) {
+            this.login = login;
+        }
+
+        public String getFullName() {
+            return fullName;
+        }
+
+        public void setFullName(String fullName) {
+            this.fullName = fullName;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+
+        public User.Role getRole() {
+            return role;
+        }
+
+        public void setRole(User.Role role) {
+            this.role = role;
+        }
+    }
+
+    public OrderDTO() {
+    }
+
+    public OrderDTO(Long id, UserRef user, String description, Order.Status status, Instant createdAt) {
+        this.id = id;
+        this.userId = user.getId();
+        this.user = user;
+        this.description = description;
+        this.status = status;
+        this.createdAt = createdAt;
+    }
+
+    public static OrderDTO fromEntity(Order order) {
+        User user = order.getUser();
+        return new OrderDTO(
+                order.getId(),
+                new UserRef(user.getId(), user.getLogin(), user.getFullName(), user.getEmail(), user.getRole()),
+                order.getDescription(),
+                order.getStatus(),
+                order.getCreatedAt()
+        );
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public UserRef getUser() {
+        return user;
+    }
+
+    public void setUser(UserRef user) {
+        this.user = user;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Order.Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Order.Status status) {
+        this.status = status;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,32 @@
+package example.com.server.dto;
+
+import example.com.server.model.Order;
+
+import java.time.Instant;
+
+/**
+ * Filters shared by the order list, page and export queries. Null fields are not applied.
+ * @param search substring match on description, case-insensitive
+ * @param createdAfter orders created at or after this instant
+ * @param createdBefore orders created at or before this instant
+ */
+public record OrderFilter(
+        Long userId,
+        Order.Status status,
+        String search,
+        Instant createdAfter,
+        Instant createdBefore
+) {
+
+    public static OrderFilter byUser(Long userId) {
+        return new OrderFilter(userId, null, null, null, null);
+    }
+
+    public static OrderFilter byStatus(Order.Status status) {
+        return new OrderFilter(null, status, null, null, null);
+    }
+
+    public boolean hasSearch() {
+        return search != null && !search.isBlank();
+    }
+}
@@ -0,0 +1,40 @@
+package example.com.server.dto;
+
+import example.com.server.model.Product;
+import example.com.server.model.User;
+
+import java.time.Instant;
+
+/**
+ * One product in API responses, without the nested seller. List pages read it directly from a
+ * product/seller join (see ProductRepositoryCustom); single products are mapped with {@link #fromEntity}.
+ */
+public record ProductListItem(
+        Long id,
+        String name,
+        String description,
+        Double price,
+        String imageUrl,
+        String category,
+        Boolean isAvailable,
+        Instant createdAt,
+        Long sellerId,
+        String sellerName
+) {
+
+    public static ProductListItem fromEntity(Product product) {
+        User seller = product.getSeller();
+        return new ProductListItem(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getImageUrl(),
+                product.getCategory(),
+                product.getIsAvailable(),
+                product.getCreatedAt(),
+                seller.getId(),
+                seller.getFullName() != null ? seller.getFullName() : seller.getLogin()
+        );
+    }
+}
@@ -0,0 +1,125 @@
+package example.com.server.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Сводка диалога с точки зрения одного пользователя (владельца).
+ * Для каждой пары пользователей хранится две строки: по одной на каждого участника.
+ * Обновляется транзакционно при отправке и прочтении сообщений.
+ */
+@Entity
+@Table(name = "conversation_summaries",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"owner_id", "partner_id"})
+        },
+        indexes = {
+                @Index(name = "idx_conversation_summaries_owner_last", columnList = "owner_id, last_message_at")
+        })
+public class ConversationSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "partner_id", nullable = false)
+    private User partner;
+
+    @Column(name = "partner_name", nullable = false)
+    private String partnerName;
+
+    @Column(name = "last_message", nullable = false, length = 2000)
+    private String lastMessage;
+
+    @Column(name = "last_message_at", nullable = false)
+    private Instant lastMessageAt;
+
+    @Column(name = "last_message_from_me", nullable = false)
+    private Boolean lastMessageFromMe;
+
+    @Column(name = "unread_count", nullable = false)
+    private Long unreadCount = 0L;
+
+    public ConversationSummary() {
+    }
+
+    public ConversationSummary(User owner, User partner, String partnerName, String lastMessage,
+                               Instant lastMessageAt, Boolean lastMessageFromMe, Long unreadCount) {
+        this.owner = owner;
+        this.partner = partner;
+        this.partnerName = partnerName;
+        this.lastMessage = lastMessage;
+        this.lastMessageAt = lastMessageAt;
+        this.lastMessageFromMe = lastMessageFromMe;
+        this.unreadCount = unreadCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public User getOwner() {
+        return owner;
+    }
+
+    public void setOwner(User owner) {
+        this.owner = owner;
+    }
+
+    public User getPartner() {
+        return partner;
+    }
+
+    public void setPartner(User partner) {
+        this.partner = partner;
+    }
+
+    public String getPartnerName() {
+        return partnerName;
+    }
+
+    public void setPartnerName(String partnerName) {
+        this.partnerName = partnerName;
+    }
+
+    public String getLastMessage() {
+        return lastMessage;
+    }
+
+    public void setLastMessage(String lastMessage) {
+        this.lastMessage = lastMessage;
+    }
+
+    public Instant getLastMessageAt() {
+        return lastMessageAt;
+    }
+
+    public void setLastMessageAt(Instant lastMessageAt) {
+        this.lastMessageAt = lastMessageAt;
+    }
+
+    public Boolean getLastMessageFromMe() {
+        return lastMessageFromMe;
+    }
+
+    public void setLastMessageFromMe(Boolean lastMessageFromMe) {
+        this.lastMessageFromMe = lastMessageFromMe;
+    }
+
+    public Long getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(Long unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+}
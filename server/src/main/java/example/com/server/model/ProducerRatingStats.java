@@ -0,0 +1,126 @@
+package example.com.server.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Накопленная статистика оценок исполнителя: сумма, количество и гистограмма по звездам.
+ * Обновляется инкрементально при создании, изменении и удалении оценок.
+ */
+@Entity
+@Table(name = "producer_rating_stats")
+public class ProducerRatingStats {
+
+    @Id
+    @Column(name = "producer_id")
+    private Long producerId;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+
+    @Column(name = "rating_count", nullable = false)
+    private Long ratingCount = 0L;
+
+    @Column(name = "one_star", nullable = false)
+    private Long oneStar = 0L;
+
+    @Column(name = "two_stars", nullable = false)
+    private Long twoStars = 0L;
+
+    @Column(name = "three_stars", nullable = false)
+    private Long threeStars = 0L;
+
+    @Column(name = "four_stars", nullable = false)
+    private Long fourStars = 0L;
+
+    @Column(name = "five_stars", nullable = false)
+    private Long fiveStars = 0L;
+
+    // Constructors
+    public ProducerRatingStats() {
+    }
+
+    public ProducerRatingStats(Long producerId) {
+        this.producerId = producerId;
+    }
+
+    /**
+     * Учесть count оценок со значением ratingValue
+     */
+    public void add(int ratingValue, long count) {
+        ratingSum += (long) ratingValue * count;
+        ratingCount += count;
+        switch (ratingValue) {
+            case 1 -> oneStar += count;
+            case 2 -> twoStars += count;
+            case 3 -> threeStars += count;
+            case 4 -> fourStars += count;
+            case 5 -> fiveStars += count;
+            default -> throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+    }
+
+    // Getters and Setters
+    public Long getProducerId() {
+        return producerId;
+    }
+
+    public void setProducerId(Long producerId) {
+        this.producerId = producerId;
+    }
+
+    public Long getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(Long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public Long getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(Long ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    public Long getOneStar() {
+        return oneStar;
+    }
+
+    public void setOneStar(Long oneStar) {
+        this.oneStar = oneStar;
+    }
+
+    public Long getTwoStars() {
+        return twoStars;
+    }
+
+    public void setTwoStars(Long twoStars) {
+        this.twoStars = twoStars;
+    }
+
+    public Long getThreeStars() {
+        return threeStars;
+    }
+
+    public void setThreeStars(Long threeStars) {
+        this.threeStars = threeStars;
+    }
+
+    public Long getFourStars() {
+        return fourStars;
+    }
+
+    public void setFourStars(Long fourStars) {
+        this.fourStars = fourStars;
+    }
+
+    public Long getFiveStars() {
+        return fiveStars;
+    }
+
+    public void setFiveStars(Long fiveStars) {
+        this.fiveStars = fiveStars;
+    }
+}
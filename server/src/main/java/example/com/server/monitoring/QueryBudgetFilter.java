@@ -0,0 +1,107 @@
+package example.com.server.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the SQL statements and database time of every HTTP request, including lazy loading while the
+ * response is written. Requests over the budget are logged, and per-endpoint totals are kept for the stats actuator endpoint.
+ * The counts are also available to later filters and the access log as request attributes.
+ */
+@Component
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_ATTRIBUTE = QueryBudgetFilter.class.getName() + ".statements";
+    public static final String DB_TIME_ATTRIBUTE = QueryBudgetFilter.class.getName() + ".dbTime";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    private final int maxStatements;
+    private final Duration maxDbTime;
+    private final ConcurrentHashMap<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    public QueryBudgetFilter(@Value("${sql.query-budget.max-statements:20}") int maxStatements,
+                             @Value("${sql.query-budget.max-db-time:PT0.2S}") Duration maxDbTime) {
+        this.maxStatements = maxStatements;
+        this.maxDbTime = maxDbTime;
+    }
+
+    private static final class EndpointStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder dbNanos = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+        private final LongAdder overBudget = new LongAdder();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCounter.Scope scope = QueryCounter.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            scope.close();
+            record(request, scope);
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryCounter.Scope scope) {
+        int statements = scope.getStatements();
+        Duration dbTime = scope.getDbTime();
+        request.setAttribute(STATEMENTS_ATTRIBUTE, statements);
+        request.setAttribute(DB_TIME_ATTRIBUTE, dbTime);
+
+        // Group by the matched route (e.g. /api/products/{id}), not by the raw path
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "(unmapped)");
+        EndpointStats stats = endpoints.computeIfAbsent(endpoint, k -> new EndpointStats());
+        stats.requests.increment();
+        stats.statements.add(statements);
+        stats.dbNanos.add(dbTime.toNanos());
+        stats.maxStatements.accumulate(statements);
+
+        if (statements > maxStatements || dbTime.compareTo(maxDbTime) > 0) {
+            stats.overBudget.increment();
+            log.warn("{} {} ran {} SQL statements taking {} ms in the database (budget {} statements, {} ms)",
+                    request.getMethod(), request.getRequestURI(), statements, dbTime.toMillis(),
+                    maxStatements, maxDbTime.toMillis());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> byEndpoint = new TreeMap<>();
+        endpoints.forEach((endpoint, stats) -> {
+            long requests = stats.requests.sum();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("requests", requests);
+            entry.put("avgStatements", requests == 0 ? 0.0 : (double) stats.statements.sum() / requests);
+            entry.put("maxStatements", stats.maxStatements.get());
+            entry.put("avgDbMillis", requests == 0 ? 0.0 : stats.dbNanos.sum() / 1_000_000.0 / requests);
+            entry.put("overBudget", stats.overBudget.sum());
+            byEndpoint.put(endpoint, entry);
+        });
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("maxStatements", maxStatements);
+        result.put("maxDbMillis", maxDbTime.toMillis());
+        result.put("endpoints", byEndpoint);
+        return result;
+    }
+}
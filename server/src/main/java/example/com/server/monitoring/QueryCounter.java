@@ -0,0 +1,102 @@
+package example.com.server.monitoring;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, and the time spent executing them.
+ * Counting happens inside a {@link Scope}: the request filter opens one per HTTP request, and tests can
+ * open their own to pin the number of queries of a piece of code:
+ * <pre>
+ * try (QueryCounter.Scope scope = QueryCounter.start()) {
+ *     ratingService.getRatingsByProducer(producerId);
+ *     assertEquals(1, scope.getStatements(), scope.getSql().toString());
+ * }
+ * </pre>
+ * Scopes nest; statements counted in an inner scope are added to the outer one when it closes.
+ * Only statements issued through Hibernate are seen, not those of JdbcTemplate.
+ */
+public final class QueryCounter {
+
+    // Enough to recognise an N+1 pattern in an assertion message without keeping every statement
+    private static final int MAX_RECORDED_SQL = 50;
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    /**
+     * Start counting on the current thread until the returned scope is closed.
+     */
+    public static Scope start() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static void statementPrepared(String sql) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.statements++;
+            if (scope.sql.size() < MAX_RECORDED_SQL) {
+                scope.sql.add(sql);
+            }
+        }
+    }
+
+    static void statementExecuted(long nanos) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.executionNanos += nanos;
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private final List<String> sql = new ArrayList<>();
+        private int statements;
+        private long executionNanos;
+        private boolean closed;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public Duration getDbTime() {
+            return Duration.ofNanos(executionNanos);
+        }
+
+        /**
+         * The first statements prepared in this scope, in order.
+         */
+        public List<String> getSql() {
+            return Collections.unmodifiableList(sql);
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (parent != null) {
+                parent.statements += statements;
+                parent.executionNanos += executionNanos;
+                for (int i = 0; i < sql.size() && parent.sql.size() < MAX_RECORDED_SQL; i++) {
+                    parent.sql.add(sql.get(i));
+                }
+                CURRENT.set(parent);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package example.com.server.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Reports every statement Hibernate prepares to {@link QueryCounter}. The SQL is passed through unchanged.
+ * Registered with hibernate.session_factory.statement_inspector.
+ */
+public class QueryCountingInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryCounter.statementPrepared(sql);
+        return sql;
+    }
+}
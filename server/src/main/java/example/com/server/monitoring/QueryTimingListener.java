@@ -0,0 +1,33 @@
+package example.com.server.monitoring;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Measures how long JDBC statement and batch executions of a session take and reports it to {@link QueryCounter}.
+ * Hibernate creates one instance per session (hibernate.session.events.auto), and a session is used by one
+ * thread at a time.
+ */
+public class QueryTimingListener implements SessionEventListener {
+
+    private long startedAt;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryCounter.statementExecuted(System.nanoTime() - startedAt);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        QueryCounter.statementExecuted(System.nanoTime() - startedAt);
+    }
+}
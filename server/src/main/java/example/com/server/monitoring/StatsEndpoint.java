@@ -0,0 +1,66 @@
+package example.com.server.monitoring;
+
+import example.com.server.config.VirtualThreadPinningDetector;
+import example.com.server.datasource.ReadReplicaRoutingDataSource;
+import example.com.server.service.GoogleTokenVerifier;
+import example.com.server.service.JwtService;
+import example.com.server.service.MessageService;
+import example.com.server.service.PasswordHashingService;
+import example.com.server.service.ProductService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runtime statistics of the in-process caches, the password hashing pool, SQL budgets, virtual thread
+ * pinning and replica routing, used to size them. An actuator endpoint, so it is only served on the
+ * management port (GET /actuator/stats) next to the Prometheus metrics, not on the public API port.
+ */
+@Component
+@Endpoint(id = "stats")
+public class StatsEndpoint {
+
+    private final ProductService productService;
+    private final MessageService messageService;
+    private final JwtService jwtService;
+    private final PasswordHashingService passwordHashingService;
+    private final GoogleTokenVerifier googleTokenVerifier;
+    private final QueryBudgetFilter queryBudgetFilter;
+    private final ObjectProvider<VirtualThreadPinningDetector> pinningDetector;
+    private final ObjectProvider<ReadReplicaRoutingDataSource> routingDataSource;
+
+    public StatsEndpoint(ProductService productService, MessageService messageService, JwtService jwtService,
+                         PasswordHashingService passwordHashingService, GoogleTokenVerifier googleTokenVerifier,
+                         QueryBudgetFilter queryBudgetFilter,
+                         ObjectProvider<VirtualThreadPinningDetector> pinningDetector,
+                         ObjectProvider<ReadReplicaRoutingDataSource> routingDataSource) {
+        this.productService = productService;
+        this.messageService = messageService;
+        this.jwtService = jwtService;
+        this.passwordHashingService = passwordHashingService;
+        this.googleTokenVerifier = googleTokenVerifier;
+        this.queryBudgetFilter = queryBudgetFilter;
+        this.pinningDetector = pinningDetector;
+        this.routingDataSource = routingDataSource;
+    }
+
+    @ReadOperation
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("productCache", productService.getCacheStats());
+        stats.put("unreadCounters", messageService.getUnreadCacheStats());
+        stats.put("jwtCache", jwtService.getCacheStats());
+        stats.put("passwordHashing", passwordHashingService.getStats());
+        stats.put("googleAuth", googleTokenVerifier.getCacheStats());
+        stats.put("sqlQueries", queryBudgetFilter.getStats());
+        // Only present in the virtual-threads profile
+        pinningDetector.ifAvailable(detector -> stats.put("virtualThreadPinning", detector.getStats()));
+        // Only present when read replicas are configured
+        routingDataSource.ifAvailable(routing -> stats.put("readReplicas", routing.getStats()));
+        return stats;
+    }
+}
@@ -1,11 +1,14 @@
 package example.com.server.repository;
 
 import example.com.server.model.CartItem;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,10 +20,20 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Query("SELECT c FROM CartItem c JOIN FETCH c.product WHERE c.user.id = :userId")
     List<CartItem> findByUserIdWithProduct(@Param("userId") Long userId);
 
+    // Cart responses show product name and price, so the product is fetched with the item
+
+    @EntityGraph(attributePaths = "product")
     Optional<CartItem> findByUserIdAndProductId(Long userId, Long productId);
 
+    @EntityGraph(attributePaths = "product")
+    Optional<CartItem> findWithProductById(Long id);
+
     void deleteByUserId(Long userId);
 
+    @Modifying
+    @Query("DELETE FROM CartItem c WHERE c.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
     void deleteByUserIdAndProductId(Long userId, Long productId);
 
     long countByUserId(Long userId);
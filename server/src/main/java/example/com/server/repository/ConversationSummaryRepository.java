@@ -0,0 +1,79 @@
+package example.com.server.repository;
+
+import example.com.server.model.ConversationSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, Long> {
+
+    /**
+     * Получить диалоги пользователя, начиная с самого свежего
+     */
+    @Query("SELECT s FROM ConversationSummary s " +
+            "WHERE s.owner.id = :ownerId " +
+            "ORDER BY s.lastMessageAt DESC")
+    List<ConversationSummary> findRecentByOwnerId(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    /**
+     * Записать новое сообщение в сводку диалога. Сводка создается, если ее еще нет; вставка и
+     * обновление идут одним запросом, поэтому два первых сообщения диалога не конфликтуют
+     * на уникальном ключе (owner_id, partner_id).
+     * unreadDelta = 1 для входящего сообщения, 0 для исходящего.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO conversation_summaries " +
+            "(owner_id, partner_id, partner_name, last_message, last_message_at, last_message_from_me, unread_count) " +
+            "VALUES (:ownerId, :partnerId, :partnerName, :content, :createdAt, :fromMe, :unreadDelta) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "partner_name = :partnerName, " +
+            "last_message = :content, " +
+            "last_message_at = :createdAt, " +
+            "last_message_from_me = :fromMe, " +
+            "unread_count = unread_count + :unreadDelta",
+            nativeQuery = true)
+    int recordMessage(
+            @Param("ownerId") Long ownerId,
+            @Param("partnerId") Long partnerId,
+            @Param("partnerName") String partnerName,
+            @Param("content") String content,
+            @Param("createdAt") Instant createdAt,
+            @Param("fromMe") Boolean fromMe,
+            @Param("unreadDelta") long unreadDelta
+    );
+
+    /**
+     * Уменьшить счетчик непрочитанных сообщений в диалоге
+     */
+    @Modifying
+    @Query("UPDATE ConversationSummary s " +
+            "SET s.unreadCount = CASE WHEN s.unreadCount > :count THEN s.unreadCount - :count ELSE 0 END " +
+            "WHERE s.owner.id = :ownerId AND s.partner.id = :partnerId")
+    int decrementUnread(
+            @Param("ownerId") Long ownerId,
+            @Param("partnerId") Long partnerId,
+            @Param("count") long count
+    );
+
+    /**
+     * Сбросить счетчик непрочитанных сообщений в диалоге
+     */
+    @Modifying
+    @Query("UPDATE ConversationSummary s SET s.unreadCount = 0 " +
+            "WHERE s.owner.id = :ownerId AND s.partner.id = :partnerId")
+    int clearUnread(@Param("ownerId") Long ownerId, @Param("partnerId") Long partnerId);
+
+    /**
+     * Обновить отображаемое имя собеседника во всех сводках
+     */
+    @Modifying
+    @Query("UPDATE ConversationSummary s SET s.partnerName = :partnerName WHERE s.partner.id = :partnerId")
+    int updatePartnerName(@Param("partnerId") Long partnerId, @Param("partnerName") String partnerName);
+}
@@ -0,0 +1,27 @@
+package example.com.server.repository;
+
+/**
+ * LIKE patterns built from user input. The wildcards % and _ and the escape character itself are
+ * escaped, so a search term only ever matches literally; pass {@link #ESCAPE} as the LIKE escape character.
+ */
+public final class LikePatterns {
+
+    public static final char ESCAPE = '\\';
+
+    private LikePatterns() {
+    }
+
+    /**
+     * Case-insensitive substring pattern for the term, to be matched against a lower-cased column.
+     */
+    public static String containsIgnoreCase(String term) {
+        StringBuilder pattern = new StringBuilder(term.length() + 2).append('%');
+        for (char c : term.toLowerCase().toCharArray()) {
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                pattern.append(ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
@@ -2,28 +2,80 @@ package example.com.server.repository;
 
 import example.com.server.model.Message;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
 
+    // Вся переписка двух пользователей и последнее сообщение выбираются условием "отправитель и получатель оба из пары",
+    // а не OR двух направлений: так запрос идет диапазонами по индексу (sender_id, receiver_id, created_at, id).
+    // Сообщения самому себе запрещены, поэтому условие sender <> receiver ничего не отбрасывает.
+    // fk() сравнивает внешние ключи самой таблицы messages: при JOIN FETCH путь m.sender.id
+    // указывал бы на колонку присоединенной таблицы user, и индекс по messages не использовался бы.
+
     /**
      * Получить все сообщения между двумя пользователями (в обе стороны)
      * Сортировка по времени создания (от старых к новым)
      */
     @Query("SELECT m FROM Message m " +
-            "WHERE (m.sender.id = :userId1 AND m.receiver.id = :userId2) " +
-            "   OR (m.sender.id = :userId2 AND m.receiver.id = :userId1) " +
+            "WHERE fk(m.sender) IN (:userId1, :userId2) " +
+            "AND fk(m.receiver) IN (:userId1, :userId2) " +
+            "AND fk(m.sender) <> fk(m.receiver) " +
             "ORDER BY m.createdAt ASC")
     List<Message> findConversationBetweenUsers(
             @Param("userId1") Long userId1,
             @Param("userId2") Long userId2
     );
 
+    // Страницы переписки читают каждое направление отдельно: sender_id = ? AND receiver_id = ?
+    // с сортировкой по (created_at, id) - это упорядоченный диапазон индекса, и каждая половина
+    // останавливается через limit строк. Половины объединяются через UNION ALL и обрезаются до limit еще раз.
+    // Отправитель и получатель не подгружаются: у страницы их всего двое (см. MessageService).
+    String CONVERSATION_BEFORE = "AND created_at <= :beforeCreatedAt " +
+            "AND (created_at < :beforeCreatedAt OR id < :beforeId) ";
+    String NEWEST_FIRST = "ORDER BY created_at DESC, id DESC LIMIT :pageSize";
+
+    /**
+     * Получить самые свежие сообщения переписки (от новых к старым), не более pageSize
+     */
+    @Query(value = "(SELECT * FROM messages WHERE sender_id = :userId1 AND receiver_id = :userId2 " +
+            NEWEST_FIRST + ") " +
+            "UNION ALL " +
+            "(SELECT * FROM messages WHERE sender_id = :userId2 AND receiver_id = :userId1 " +
+            NEWEST_FIRST + ") " +
+            NEWEST_FIRST,
+            nativeQuery = true)
+    List<Message> findLatestInConversation(
+            @Param("userId1") Long userId1,
+            @Param("userId2") Long userId2,
+            @Param("pageSize") int pageSize
+    );
+
+    /**
+     * Получить сообщения переписки, которые старше позиции (createdAt, id), от новых к старым,
+     * не более pageSize
+     */
+    @Query(value = "(SELECT * FROM messages WHERE sender_id = :userId1 AND receiver_id = :userId2 " +
+            CONVERSATION_BEFORE + NEWEST_FIRST + ") " +
+            "UNION ALL " +
+            "(SELECT * FROM messages WHERE sender_id = :userId2 AND receiver_id = :userId1 " +
+            CONVERSATION_BEFORE + NEWEST_FIRST + ") " +
+            NEWEST_FIRST,
+            nativeQuery = true)
+    List<Message> findInConversationBefore(
+            @Param("userId1") Long userId1,
+            @Param("userId2") Long userId2,
+            @Param("beforeCreatedAt") Instant beforeCreatedAt,
+            @Param("beforeId") Long beforeId,
+            @Param("pageSize") int pageSize
+    );
+
     /**
      * Получить все сообщения пользователя (входящие и исходящие)
      * С JOIN FETCH для избежания N+1 проблемы
@@ -40,6 +92,25 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
      */
     List<Message> findByReceiverIdAndIsReadFalse(Long receiverId);
 
+    /**
+     * Посчитать непрочитанные сообщения пользователя без загрузки самих сообщений
+     */
+    long countByReceiverIdAndIsReadFalse(Long receiverId);
+
+    /**
+     * Отметить прочитанными все непрочитанные сообщения от отправителя получателю одним запросом
+     * @return количество отмеченных сообщений
+     */
+    @Modifying
+    @Query("UPDATE Message m SET m.isRead = true " +
+            "WHERE m.receiver.id = :receiverId " +
+            "AND m.sender.id = :senderId " +
+            "AND m.isRead = false")
+    int markAllAsReadFromSender(
+            @Param("receiverId") Long receiverId,
+            @Param("senderId") Long senderId
+    );
+
     /**
      * Получить количество непрочитанных сообщений от конкретного пользователя
      */
@@ -56,8 +127,9 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
      * Получить последнее сообщение между двумя пользователями
      */
     @Query("SELECT m FROM Message m " +
-            "WHERE (m.sender.id = :userId1 AND m.receiver.id = :userId2) " +
-            "   OR (m.sender.id = :userId2 AND m.receiver.id = :userId1) " +
+            "WHERE fk(m.sender) IN (:userId1, :userId2) " +
+            "AND fk(m.receiver) IN (:userId1, :userId2) " +
+            "AND fk(m.sender) <> fk(m.receiver) " +
             "ORDER BY m.createdAt DESC " +
             "LIMIT 1")
     Message findLastMessageBetweenUsers(
@@ -75,4 +147,4 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
             "FROM Message m " +
             "WHERE m.sender.id = :userId OR m.receiver.id = :userId")
     List<Long> findAllConversationPartners(@Param("userId") Long userId);
-}
\ No newline at end of file
+}
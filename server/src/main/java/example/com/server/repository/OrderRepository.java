@@ -2,18 +2,24 @@ package example.com.server.repository;
 
 import example.com.server.model.Order;
 import example.com.server.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>,
+        OrderRepositoryCustom {
 
     List<Order> findByUser(User user);
 
-    List<Order> findByUserId(Long userId);
-
-    List<Order> findByStatus(Order.Status status);
+    /**
+     * Orders are returned together with their buyer (see OrderDTO), so the user is loaded in the same query.
+     * Lists of orders are read in pages through findBy with the same fetch plan (see OrderService).
+     */
+    @EntityGraph(attributePaths = "user")
+    Optional<Order> findWithUserById(Long id);
 }
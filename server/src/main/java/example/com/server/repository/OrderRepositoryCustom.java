@@ -0,0 +1,25 @@
+package example.com.server.repository;
+
+import example.com.server.dto.OrderDTO;
+import example.com.server.dto.OrderFilter;
+import example.com.server.model.Order;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Insert new orders with a single JDBC batch and assign their generated ids.
+     * Hibernate cannot batch these inserts itself because order ids come from an IDENTITY column.
+     */
+    List<Order> insertAll(List<Order> orders);
+
+    /**
+     * Read all orders matching the filter, newest first, together with their buyers, and hand them to
+     * the consumer one by one. Rows come from a forward-only JDBC cursor that fetches fetchSize rows at a
+     * time (on MySQL they are streamed row by row), so memory use does not depend on the number of
+     * matching orders. The connection stays busy until the consumer has seen the last row.
+     */
+    void streamOrders(OrderFilter filter, int fetchSize, Consumer<OrderDTO> consumer);
+}
@@ -0,0 +1,139 @@
+package example.com.server.repository;
+
+import example.com.server.dto.OrderDTO;
+import example.com.server.dto.OrderFilter;
+import example.com.server.model.Order;
+import example.com.server.model.User;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.function.Consumer;
+
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO orders (user_id, description, status, created_at) VALUES (?, ?, ?, ?)";
+
+    private static final String SELECT_WITH_USER_SQL =
+            "SELECT o.id, o.description, o.status, o.created_at,"
+                    + " u.iduser, u.login, u.full_name, u.email, u.role"
+                    + " FROM orders o JOIN user u ON u.iduser = o.user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Order> insertAll(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return orders;
+        }
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Order order = orders.get(i);
+                        ps.setLong(1, order.getUser().getId());
+                        ps.setString(2, order.getDescription());
+                        ps.setString(3, order.getStatus().name());
+                        ps.setTimestamp(4, Timestamp.from(order.getCreatedAt()), utc);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return orders.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < orders.size(); i++) {
+            Object key = keys.get(i).values().iterator().next();
+            orders.get(i).setId(((Number) key).longValue());
+        }
+        return orders;
+    }
+
+    @Override
+    public void streamOrders(OrderFilter filter, int fetchSize, Consumer<OrderDTO> consumer) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (filter.userId() != null) {
+            conditions.add("o.user_id = ?");
+            args.add(filter.userId());
+        }
+        if (filter.status() != null) {
+            conditions.add("o.status = ?");
+            args.add(filter.status().name());
+        }
+        if (filter.hasSearch()) {
+            conditions.add("LOWER(o.description) LIKE ? ESCAPE ?");
+            args.add(LikePatterns.containsIgnoreCase(filter.search()));
+            args.add(String.valueOf(LikePatterns.ESCAPE));
+        }
+        if (filter.createdAfter() != null) {
+            conditions.add("o.created_at >= ?");
+            args.add(filter.createdAfter());
+        }
+        if (filter.createdBefore() != null) {
+            conditions.add("o.created_at <= ?");
+            args.add(filter.createdBefore());
+        }
+        String sql = SELECT_WITH_USER_SQL
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY o.created_at DESC, o.id DESC";
+
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(sql,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(streamingFetchSize(connection, fetchSize));
+                    for (int i = 0; i < args.size(); i++) {
+                        Object arg = args.get(i);
+                        if (arg instanceof Instant instant) {
+                            ps.setTimestamp(i + 1, Timestamp.from(instant), utc);
+                        } else {
+                            ps.setObject(i + 1, arg);
+                        }
+                    }
+                    return ps;
+                },
+                rs -> {
+                    OrderDTO.UserRef user = new OrderDTO.UserRef(rs.getLong("iduser"), rs.getString("login"),
+                            rs.getString("full_name"), rs.getString("email"), User.Role.valueOf(rs.getString("role")));
+                    consumer.accept(new OrderDTO(rs.getLong("id"), user, rs.getString("description"),
+                            Order.Status.valueOf(rs.getString("status")),
+                            rs.getTimestamp("created_at", utc).toInstant()));
+                });
+    }
+
+    /**
+     * MySQL Connector/J reads the whole result into memory unless a forward-only, read-only statement
+     * has the fetch size Integer.MIN_VALUE, which streams it row by row over the open connection
+     * (server-side cursors with useCursorFetch would apply to every statement of the pool instead).
+     * Other drivers take the fetch size as given.
+     */
+    private static int streamingFetchSize(Connection connection, int fetchSize) throws SQLException {
+        return "MySQL".equals(connection.getMetaData().getDatabaseProductName()) ? Integer.MIN_VALUE : fetchSize;
+    }
+}
@@ -0,0 +1,35 @@
+package example.com.server.repository;
+
+import example.com.server.model.ProducerRatingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProducerRatingStatsRepository extends JpaRepository<ProducerRatingStats, Long> {
+
+    // Атомарно прибавить изменения к статистике исполнителя (строка создается, если ее еще нет)
+    @Modifying
+    @Query(value = "INSERT INTO producer_rating_stats " +
+            "(producer_id, rating_sum, rating_count, one_star, two_stars, three_stars, four_stars, five_stars) " +
+            "VALUES (:producerId, :sumDelta, :countDelta, :oneDelta, :twoDelta, :threeDelta, :fourDelta, :fiveDelta) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "rating_sum = rating_sum + :sumDelta, " +
+            "rating_count = rating_count + :countDelta, " +
+            "one_star = one_star + :oneDelta, " +
+            "two_stars = two_stars + :twoDelta, " +
+            "three_stars = three_stars + :threeDelta, " +
+            "four_stars = four_stars + :fourDelta, " +
+            "five_stars = five_stars + :fiveDelta",
+            nativeQuery = true)
+    int applyDelta(@Param("producerId") Long producerId,
+                   @Param("sumDelta") long sumDelta,
+                   @Param("countDelta") long countDelta,
+                   @Param("oneDelta") long oneDelta,
+                   @Param("twoDelta") long twoDelta,
+                   @Param("threeDelta") long threeDelta,
+                   @Param("fourDelta") long fourDelta,
+                   @Param("fiveDelta") long fiveDelta);
+}
@@ -4,14 +4,24 @@ import example.com.server.model.Product;
 import example.com.server.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductRepositoryCustom {
+
+    @EntityGraph(attributePaths = "seller")
+    Optional<Product> findWithSellerById(Long id);
 
     List<Product> findBySeller(User seller);
 
@@ -26,4 +36,24 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     Page<Product> findByIsAvailableTrue(Pageable pageable);
 
     Page<Product> findByCategoryAndIsAvailableTrue(String category, Pageable pageable);
+
+    /**
+     * Lock the still-available products among the given ids (in id order, to avoid deadlocks
+     * between concurrent checkouts) and return their ids.
+     */
+    @Query(value = "SELECT id FROM product WHERE id IN (:ids) AND is_available = true ORDER BY id FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockAvailableIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Compare-and-set reservation of one product: succeeds (returns 1) only for the first caller
+     * that finds it available.
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.isAvailable = false WHERE p.id = :id AND p.isAvailable = true")
+    int markUnavailableIfAvailable(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.isAvailable = false WHERE p.id IN :ids AND p.isAvailable = true")
+    int markUnavailable(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,25 @@
+package example.com.server.repository;
+
+import example.com.server.dto.ProductListItem;
+import example.com.server.model.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Page of product list rows matching the specification. Each row is selected with its seller's
+     * id and display name in one join; no Product or User entities are loaded.
+     * The count query is skipped when the page shows that there are no more rows.
+     */
+    Page<ProductListItem> findListItems(Specification<Product> spec, Pageable pageable);
+
+    /**
+     * At most {@code limit} product list rows matching the specification, in the given order.
+     */
+    List<ProductListItem> findListItems(Specification<Product> spec, Sort sort, int limit);
+}
@@ -2,7 +2,9 @@ package example.com.server.repository;
 
 import example.com.server.model.Rating;
 import example.com.server.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,11 +18,23 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
     // Найти рейтинг, который конкретный заказчик поставил конкретному исполнителю
     Optional<Rating> findByCustomerAndProducer(User customer, User producer);
 
+    // Найти рейтинг по ID заказчика и исполнителя вместе с обоими пользователями одним запросом
+    @Query("SELECT r FROM Rating r JOIN FETCH r.customer JOIN FETCH r.producer " +
+            "WHERE r.customer.id = :customerId AND r.producer.id = :producerId")
+    Optional<Rating> findByCustomerIdAndProducerId(@Param("customerId") Long customerId,
+                                                   @Param("producerId") Long producerId);
+
+    // То же с блокировкой строки до конца транзакции (SELECT ... FOR UPDATE): старая оценка,
+    // из которой считается изменение статистики, не может поменяться до коммита
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Rating> findForUpdateByCustomerAndProducer(User customer, User producer);
+
     // Найти все рейтинги для конкретного исполнителя
     List<Rating> findByProducer(User producer);
 
-    // Найти все рейтинги для конкретного исполнителя по ID
-    List<Rating> findByProducerId(Long producerId);
+    // Найти все рейтинги для конкретного исполнителя по ID вместе с заказчиками и исполнителем одним запросом
+    @Query("SELECT r FROM Rating r JOIN FETCH r.customer JOIN FETCH r.producer WHERE r.producer.id = :producerId")
+    List<Rating> findByProducerId(@Param("producerId") Long producerId);
 
     // Посчитать средний рейтинг исполнителя
     @Query("SELECT AVG(r.ratingValue) FROM Rating r WHERE r.producer.id = :producerId")
@@ -33,6 +47,10 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
     @Query("SELECT COUNT(r) FROM Rating r WHERE r.producer.id = :producerId AND r.ratingValue = :value")
     Long countByProducerIdAndRatingValue(@Param("producerId") Long producerId, @Param("value") Integer value);
 
+    // Гистограмма оценок исполнителя одним запросом: пары (оценка, количество)
+    @Query("SELECT r.ratingValue, COUNT(r) FROM Rating r WHERE r.producer.id = :producerId GROUP BY r.ratingValue")
+    List<Object[]> countByRatingValueForProducer(@Param("producerId") Long producerId);
+
     // Проверить, поставил ли заказчик оценку исполнителю
     boolean existsByCustomerIdAndProducerId(Long customerId, Long producerId);
 }
\ No newline at end of file
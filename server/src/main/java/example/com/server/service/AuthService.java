@@ -3,11 +3,11 @@ package example.com.server.service;
 import example.com.server.model.User;
 import example.com.server.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 public class AuthService {
@@ -16,7 +16,7 @@ public class AuthService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     public User register(User user) {
         if (user == null || user.getLogin() == null) {
@@ -32,7 +32,7 @@ public class AuthService {
             user.setRole(User.Role.CUSTOMER);
         }
 
-        String hashedPassword = passwordEncoder.encode(user.getPassword());
+        String hashedPassword = passwordHashingService.encode(user.getPassword());
         user.setPassword(hashedPassword);
 
         userRepository.save(user);
@@ -46,13 +46,32 @@ public class AuthService {
         return userRepository.findByLogin(login);
     }
 
+    /**
+     * Check credentials. Password hashes made with a different BCrypt cost than the configured one
+     * are transparently rehashed after a successful login.
+     * @throws RejectedExecutionException if password hashing is saturated
+     */
     public Optional<User> login(String login, String password) {
         if (login == null || password == null) {
             return Optional.empty();
         }
 
-        return findByLogin(login)
-                .filter(user -> passwordEncoder.matches(password, user.getPassword()));
+        Optional<User> user = findByLogin(login)
+                .filter(u -> passwordHashingService.matches(password, u.getPassword()));
+        user.ifPresent(u -> rehashIfNeeded(u, password));
+        return user;
+    }
+
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordHashingService.upgradeEncoding(user.getPassword())) {
+            return;
+        }
+        try {
+            user.setPassword(passwordHashingService.encode(rawPassword));
+            userRepository.save(user);
+        } catch (RejectedExecutionException ex) {
+            // The upgrade is retried on a later login
+        }
     }
 
     public Collection<User> getAllUsers() {
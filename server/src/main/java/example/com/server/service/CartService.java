@@ -1,10 +1,12 @@
 package example.com.server.service;
 
 import example.com.server.model.CartItem;
+import example.com.server.model.Order;
 import example.com.server.model.Product;
 import example.com.server.model.User;
 import example.com.server.repository.CartItemRepository;
-import example.com.server.service.OrderService;
+import example.com.server.repository.OrderRepository;
+import example.com.server.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,6 +16,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.HashMap;
+import java.util.Set;
 
 @Service
 public class CartService {
@@ -28,8 +31,12 @@ public class CartService {
     private ProductService productService;
 
     @Autowired
-    private OrderService orderService;
+    private OrderRepository orderRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Transactional
     public CartItem addToCart(Long userId, Long productId, Integer quantity) {
         User user = userService.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
@@ -63,8 +70,9 @@ public class CartService {
         return cartItemRepository.findById(id);
     }
 
+    @Transactional
     public Optional<CartItem> updateCartItemQuantity(Long cartItemId, Integer quantity) {
-        CartItem cartItem = cartItemRepository.findById(cartItemId)
+        CartItem cartItem = cartItemRepository.findWithProductById(cartItemId)
                 .orElseThrow(() -> new IllegalArgumentException("Cart item not found: " + cartItemId));
 
         if (quantity <= 0) {
@@ -89,8 +97,10 @@ public class CartService {
     }
 
     /**
-     * Checkout: create an order for each cart item, mark products as unavailable, then clear the cart.
-     * @return list of created order IDs and total price
+     * Checkout: reserve all cart products with one bulk update, insert an order for each reserved
+     * product in one JDBC batch and remove the purchased items from the cart.
+     * Products that are no longer available are reported in failedItems and stay in the cart.
+     * @return list of created order IDs, total price and the items that could not be purchased
      */
     @Transactional
     public Map<String, Object> checkout(Long userId) {
@@ -98,25 +108,45 @@ public class CartService {
         if (items.isEmpty()) {
             throw new IllegalArgumentException("Cart is empty");
         }
-        List<Long> orderIds = new ArrayList<>();
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("User not found: " + userId);
+        }
+        User user = userRepository.getReferenceById(userId);
+
+        List<Long> productIds = items.stream().map(item -> item.getProduct().getId()).toList();
+        Set<Long> reserved = productService.reserveProducts(productIds);
+
+        List<Order> orders = new ArrayList<>();
+        List<Long> purchasedItemIds = new ArrayList<>();
+        List<Map<String, Object>> failedItems = new ArrayList<>();
         double totalPrice = 0;
         for (CartItem item : items) {
             Product product = item.getProduct();
-            if (product == null) continue;
-            if (!product.getIsAvailable()) {
-                throw new IllegalArgumentException("Product is not available: " + product.getName());
+            if (!reserved.contains(product.getId())) {
+                Map<String, Object> failed = new HashMap<>();
+                failed.put("productId", product.getId());
+                failed.put("productName", product.getName());
+                failed.put("reason", "Product is not available");
+                failedItems.add(failed);
+                continue;
             }
             String description = "Purchase: " + product.getName() + " (ID: " + product.getId() + "), qty: " + item.getQuantity();
-            var order = orderService.createOrder(userId, description);
-            orderIds.add(order.getId());
+            orders.add(new Order(user, description, Order.Status.PENDING));
+            purchasedItemIds.add(item.getId());
             totalPrice += item.getTotalPrice();
-            productService.updateProduct(product.getId(), null, null, null, null, false);
         }
-        cartItemRepository.deleteByUserId(userId);
+        if (orders.isEmpty()) {
+            throw new IllegalArgumentException("None of the products in the cart are available");
+        }
+
+        orderRepository.insertAll(orders);
+        cartItemRepository.deleteAllByIdIn(purchasedItemIds);
+
         Map<String, Object> result = new HashMap<>();
-        result.put("orderIds", orderIds);
+        result.put("orderIds", orders.stream().map(Order::getId).toList());
         result.put("totalPrice", totalPrice);
-        result.put("message", "Checkout successful");
+        result.put("failedItems", failedItems);
+        result.put("message", failedItems.isEmpty() ? "Checkout successful" : "Checkout partially successful");
         return result;
     }
 }
@@ -0,0 +1,168 @@
+package example.com.server.service;
+
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.Key;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps Google's token signing keys (JWK set) in memory. The set is fetched once at startup and then
+ * refreshed on a background thread, so verification never waits for the network.
+ * Fetches have a timeout, and after several consecutive failures fetching pauses for a cool-down
+ * period (circuit breaker) while the last known keys keep being served.
+ */
+@Component
+public class GoogleCertsKeyProvider implements PublicKeyProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(GoogleCertsKeyProvider.class);
+
+    // Minimum delay between refreshes triggered by an unknown key id
+    private static final long ON_DEMAND_REFRESH_INTERVAL_MILLIS = 10_000;
+
+    private final URI certsUri;
+    private final Duration timeout;
+    private final Duration refreshInterval;
+    private final int failureThreshold;
+    private final Duration coolDown;
+
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "google-certs-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile Instant lastRefresh;
+    private volatile long circuitOpenUntilMillis;
+    private volatile long lastOnDemandRefreshMillis;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder fetchFailures = new LongAdder();
+
+    public GoogleCertsKeyProvider(
+            @Value("${auth.google.certs-url:https://www.googleapis.com/oauth2/v3/certs}") String certsUrl,
+            @Value("${auth.google.certs-timeout:PT2S}") Duration timeout,
+            @Value("${auth.google.certs-refresh:PT1H}") Duration refreshInterval,
+            @Value("${auth.google.certs-failure-threshold:3}") int failureThreshold,
+            @Value("${auth.google.certs-cool-down:PT1M}") Duration coolDown) {
+        this.certsUri = URI.create(certsUrl);
+        this.timeout = timeout;
+        this.refreshInterval = refreshInterval;
+        this.failureThreshold = failureThreshold;
+        this.coolDown = coolDown;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    /**
+     * Pre-warm the keys and schedule periodic refreshes. A failed first fetch does not stop startup.
+     */
+    @PostConstruct
+    public void start() {
+        refresh();
+        long interval = refreshInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public Optional<PublicKey> getKey(String keyId) {
+        PublicKey key = keyId != null ? keys.get(keyId) : null;
+        if (key == null) {
+            // Keys may have been rotated: refresh in the background, never on the caller's thread
+            long now = System.currentTimeMillis();
+            if (now - lastOnDemandRefreshMillis >= ON_DEMAND_REFRESH_INTERVAL_MILLIS) {
+                lastOnDemandRefreshMillis = now;
+                scheduler.execute(this::refresh);
+            }
+        }
+        return Optional.ofNullable(key);
+    }
+
+    /**
+     * Fetch the key set now unless the circuit is open or another refresh is running.
+     */
+    public void refresh() {
+        if (System.currentTimeMillis() < circuitOpenUntilMillis || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            fetches.increment();
+            keys = fetchKeys();
+            lastRefresh = Instant.now();
+            consecutiveFailures.set(0);
+        } catch (Exception ex) {
+            fetchFailures.increment();
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+                circuitOpenUntilMillis = System.currentTimeMillis() + coolDown.toMillis();
+                consecutiveFailures.set(0);
+            }
+            log.warn("Failed to fetch Google signing keys from {}: {}", certsUri, ex.toString());
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private Map<String, PublicKey> fetchKeys() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(certsUri).timeout(timeout).GET().build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+
+        JwkSet jwkSet = Jwks.setParser().build().parse(response.body());
+        Map<String, PublicKey> fetched = new HashMap<>();
+        for (Jwk<?> jwk : jwkSet) {
+            Key key = jwk.toKey();
+            if (jwk.getId() != null && key instanceof PublicKey publicKey) {
+                fetched.put(jwk.getId(), publicKey);
+            }
+        }
+        if (fetched.isEmpty()) {
+            throw new IllegalStateException("Key set contains no public keys");
+        }
+        return Map.copyOf(fetched);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("keys", keys.size());
+        stats.put("lastRefresh", lastRefresh);
+        stats.put("fetches", fetches.sum());
+        stats.put("fetchFailures", fetchFailures.sum());
+        stats.put("circuitOpen", System.currentTimeMillis() < circuitOpenUntilMillis);
+        return stats;
+    }
+}
@@ -1,30 +1,96 @@
 package example.com.server.service;
 
-import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
-import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.jackson2.JacksonFactory;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
+import java.security.Key;
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
+/**
+ * Verifies Google ID tokens locally against keys from a {@link PublicKeyProvider}.
+ * Tokens that were verified recently are answered from a short-lived cache.
+ */
 @Service
 public class GoogleTokenVerifier {
 
-    private final GoogleIdTokenVerifier verifier;
+    private static final Set<String> ISSUERS = Set.of("accounts.google.com", "https://accounts.google.com");
+    // Same allowance for clock differences as Google's own verifier
+    private static final long CLOCK_SKEW_SECONDS = 300;
 
-    public GoogleTokenVerifier() {
-        this.verifier = new GoogleIdTokenVerifier.Builder(new NetHttpTransport(), new JacksonFactory())
-                .setAudience(Collections.singletonList("1090006187412-1u3ojagta6f14jbj4pn6020jf0isamd7.apps.googleusercontent.com"))
+    /**
+     * Identity carried by a verified Google ID token.
+     */
+    public record GoogleIdentity(String subject, String email, String name) {
+    }
+
+    private final PublicKeyProvider keyProvider;
+    private final String clientId;
+    private final JwtParser parser;
+    private final VerifiedTokenCache<GoogleIdentity> verifiedTokens;
+
+    public GoogleTokenVerifier(PublicKeyProvider keyProvider,
+                               @Value("${auth.google.client-id:1090006187412-1u3ojagta6f14jbj4pn6020jf0isamd7.apps.googleusercontent.com}") String clientId,
+                               @Value("${auth.google.token-cache.max-size:1000}") int cacheMaxSize,
+                               @Value("${auth.google.token-cache.ttl:PT5M}") Duration cacheTtl) {
+        this.keyProvider = keyProvider;
+        this.clientId = clientId;
+        this.verifiedTokens = new VerifiedTokenCache<>(cacheMaxSize, cacheTtl);
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return keyProvider.getKey(header.getKeyId())
+                                .orElseThrow(() -> new JwtException("Unknown signing key: " + header.getKeyId()));
+                    }
+                })
+                .clockSkewSeconds(CLOCK_SKEW_SECONDS)
                 .build();
     }
 
-    public GoogleIdToken.Payload verify(String token) throws Exception {
-        GoogleIdToken idToken = verifier.verify(token);
+    /**
+     * Verify signature, issuer, audience and expiry of a Google ID token.
+     * @throws JwtException if the token is not valid
+     */
+    public GoogleIdentity verify(String token) {
+        if (token == null || token.isBlank()) {
+            throw new JwtException("Google ID token is required");
+        }
+        Optional<GoogleIdentity> cached = verifiedTokens.get(token);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (!ISSUERS.contains(claims.getIssuer())) {
+            throw new JwtException("Invalid Google ID token issuer");
+        }
+        if (claims.getAudience() == null || !claims.getAudience().contains(clientId)) {
+            throw new JwtException("Invalid Google ID token audience");
+        }
+
+        GoogleIdentity identity = new GoogleIdentity(claims.getSubject(),
+                claims.get("email", String.class), claims.get("name", String.class));
+        Date expiration = claims.getExpiration();
+        verifiedTokens.put(token, identity, expiration != null ? expiration.toInstant() : null);
+        return identity;
+    }
 
-        if (idToken == null) {
-            throw new RuntimeException("Invalid Google ID token");
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(verifiedTokens.getStats());
+        if (keyProvider instanceof GoogleCertsKeyProvider certsKeyProvider) {
+            stats.put("certs", certsKeyProvider.getStats());
         }
-         return idToken.getPayload();
+        return stats;
     }
 }
@@ -2,31 +2,51 @@ package example.com.server.service;
 
 import example.com.server.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class JwtService {
 
     private final String secret = "your-secret-key-your-secret-key-your-secret-key-your-secret-key-your-secret-key-your-secret-key";
 
+    // The key and the parser are immutable and thread-safe, so they are built once
+    private final SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    private final JwtParser parser = Jwts.parser().verifyWith(key).build();
+
+    // User ids of tokens that were already verified, so repeat requests skip the signature check
+    private final VerifiedTokenCache<Long> verifiedTokens;
+
+    public JwtService(@Value("${auth.jwt.cache.max-size:10000}") int cacheMaxSize,
+                      @Value("${auth.jwt.cache.ttl:PT10M}") Duration cacheTtl) {
+        this.verifiedTokens = new VerifiedTokenCache<>(cacheMaxSize, cacheTtl);
+    }
+
     public String generateToken(User user) {
         return Jwts.builder()
-                .setSubject(user.getEmail() != null ? user.getEmail() : "")
+                .subject(user.getEmail() != null ? user.getEmail() : "")
                 .claim("id", user.getId())
                 .claim("login", user.getLogin())
                 .claim("role", user.getRole())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24))
-                .signWith(SignatureAlgorithm.HS256, secret.getBytes())
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24))
+                .signWith(key, Jwts.SIG.HS256)
                 .compact();
     }
 
     /**
      * Parse Bearer token and return user id from claims.
+     * Tokens verified before are answered from the cache until they expire.
      * @throws io.jsonwebtoken.JwtException if token is invalid
      */
     public Long getUserIdFromToken(String bearerToken) {
@@ -34,16 +54,32 @@ public class JwtService {
             return null;
         }
         String token = bearerToken.substring(7);
-        Claims claims = Jwts.parser()
-                .setSigningKey(secret.getBytes())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Optional<Long> cached = verifiedTokens.get(token);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        Claims claims = verify(token);
 
         Object id = claims.get("id");
         if (id instanceof Number) {
-            return ((Number) id).longValue();
+            Long userId = ((Number) id).longValue();
+            Date expiration = claims.getExpiration();
+            verifiedTokens.put(token, userId, expiration != null ? expiration.toInstant() : null);
+            return userId;
         }
         return null;
     }
+
+    /**
+     * Check the token's signature and expiry and return its claims, without looking at the cache.
+     * @throws io.jsonwebtoken.JwtException if token is invalid
+     */
+    public Claims verify(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return verifiedTokens.getStats();
+    }
 }
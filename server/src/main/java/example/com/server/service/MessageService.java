@@ -1,12 +1,18 @@
 package example.com.server.service;
 
+import example.com.server.datasource.ReadYourWritesTracker;
 import example.com.server.dto.ConversationDTO;
 import example.com.server.dto.MessageDTO;
+import example.com.server.dto.PageCursor;
 import example.com.server.model.Message;
 import example.com.server.model.User;
+import example.com.server.repository.ConversationSummaryRepository;
 import example.com.server.repository.MessageRepository;
 import example.com.server.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,9 +28,15 @@ public class MessageService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ConversationSummaryRepository conversationSummaryRepository;
+
     @Autowired
     private WebSocketNotificationService webSocketNotificationService;
 
+    @Autowired
+    private UnreadCounterCache unreadCounterCache;
+
     /**
      * Отправить сообщение от одного пользователя другому
      */
@@ -46,6 +58,17 @@ public class MessageService {
         Message message = new Message(sender, receiver, content);
         message = messageRepository.save(message);
 
+        // Обе сводки диалога обновляются в порядке id владельца: встречные сообщения
+        // блокируют строки в одном и том же порядке и не ловят взаимную блокировку
+        if (senderId < receiverId) {
+            updateConversationSummary(sender, receiver, message, true);
+            updateConversationSummary(receiver, sender, message, false);
+        } else {
+            updateConversationSummary(receiver, sender, message, false);
+            updateConversationSummary(sender, receiver, message, true);
+        }
+        unreadCounterCache.adjust(receiverId, 1);
+
         MessageDTO dto = MessageDTO.fromEntity(message);
         webSocketNotificationService.notifyUsers(dto);
         return dto;
@@ -63,68 +86,47 @@ public class MessageService {
     }
 
     /**
-     * Получить список всех диалогов для пользователя
-     * Группирует сообщения по собеседникам
+     * Получить страницу переписки: не более limit сообщений, которые старше курсора before
+     * (или самые свежие, если курсора нет). Сообщения в странице идут от старых к новым.
      */
     @Transactional(readOnly = true)
-    public List<ConversationDTO> getUserConversations(Long userId) {
-        // Получаем все сообщения пользователя
-        List<Message> allMessages = messageRepository.findAllUserMessages(userId);
-
-        // Группируем сообщения по собеседникам
-        Map<Long, List<Message>> conversationsByUser = new HashMap<>();
-
-        for (Message message : allMessages) {
-            Long otherUserId = message.getSender().getId().equals(userId)
-                    ? message.getReceiver().getId()
-                    : message.getSender().getId();
-
-            conversationsByUser.computeIfAbsent(otherUserId, k -> new ArrayList<>())
-                    .add(message);
+    public Slice<MessageDTO> getConversationPage(Long userId1, Long userId2, PageCursor before, int limit) {
+        // Оба участника загружаются заранее одним запросом: сообщения страницы ссылаются на них
+        // из контекста персистентности, а не загружают отправителя и получателя построчно
+        userRepository.findAllById(List.of(userId1, userId2));
+
+        // Запрашиваем на одно сообщение больше, чтобы понять, есть ли еще более старые
+        List<Message> messages = before == null
+                ? messageRepository.findLatestInConversation(userId1, userId2, limit + 1)
+                : messageRepository.findInConversationBefore(userId1, userId2,
+                        before.getCreatedAt(), before.getId(), limit + 1);
+
+        boolean hasMore = messages.size() > limit;
+        List<MessageDTO> page = new ArrayList<>(Math.min(messages.size(), limit));
+        for (Message message : messages.subList(0, Math.min(messages.size(), limit))) {
+            page.add(MessageDTO.fromEntity(message));
         }
+        Collections.reverse(page);
+        return new SliceImpl<>(page, PageRequest.of(0, limit), hasMore);
+    }
 
-        // Создаем DTO для каждого диалога
-        List<ConversationDTO> conversations = new ArrayList<>();
-
-        for (Map.Entry<Long, List<Message>> entry : conversationsByUser.entrySet()) {
-            Long otherUserId = entry.getKey();
-            List<Message> messages = entry.getValue();
-
-            // Сортируем сообщения по времени (последнее - первое)
-            messages.sort((m1, m2) -> m2.getCreatedAt().compareTo(m1.getCreatedAt()));
-
-            Message lastMessage = messages.get(0);
-
-            // Подсчитываем непрочитанные сообщения от собеседника
-            long unreadCount = messages.stream()
-                    .filter(m -> m.getReceiver().getId().equals(userId) && !m.getIsRead())
-                    .count();
-
-            // Определяем имя собеседника
-            User otherUser = lastMessage.getSender().getId().equals(userId)
-                    ? lastMessage.getReceiver()
-                    : lastMessage.getSender();
-
-            String otherUserName = getUserDisplayName(otherUser);
-
-            boolean isLastMessageFromMe = lastMessage.getSender().getId().equals(userId);
-
-            ConversationDTO conversation = new ConversationDTO(
-                    otherUserId,
-                    otherUserName,
-                    lastMessage.getContent(),
-                    lastMessage.getCreatedAt(),
-                    unreadCount,
-                    isLastMessageFromMe
-            );
-
-            conversations.add(conversation);
-        }
-
-        // Сортируем диалоги по времени последнего сообщения
-        conversations.sort((c1, c2) -> c2.getLastMessageAt().compareTo(c1.getLastMessageAt()));
-
-        return conversations;
+    /**
+     * Получить список диалогов пользователя (не более limit самых свежих)
+     * Читает готовые сводки, а не всю историю сообщений
+     */
+    @Transactional(readOnly = true)
+    public List<ConversationDTO> getUserConversations(Long userId, int limit) {
+        return conversationSummaryRepository.findRecentByOwnerId(userId, PageRequest.of(0, limit))
+                .stream()
+                .map(summary -> new ConversationDTO(
+                        summary.getPartner().getId(),
+                        summary.getPartnerName(),
+                        summary.getLastMessage(),
+                        summary.getLastMessageAt(),
+                        summary.getUnreadCount(),
+                        summary.getLastMessageFromMe()
+                ))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -140,34 +142,43 @@ public class MessageService {
             throw new IllegalArgumentException("You can only mark your own messages as read");
         }
 
-        message.setIsRead(true);
-        messageRepository.save(message);
+        if (!message.getIsRead()) {
+            message.setIsRead(true);
+            messageRepository.save(message);
+            conversationSummaryRepository.decrementUnread(userId, message.getSender().getId(), 1);
+            unreadCounterCache.adjust(userId, -1);
+        }
     }
 
     /**
      * Отметить все сообщения от конкретного пользователя как прочитанные
+     * Обновляет только непрочитанные входящие сообщения одним UPDATE и отправляет
+     * собеседнику одно уведомление о прочтении
+     * @return количество отмеченных сообщений
      */
     @Transactional
-    public void markConversationAsRead(Long currentUserId, Long otherUserId) {
-        List<Message> messages = messageRepository.findConversationBetweenUsers(currentUserId, otherUserId);
-
-        for (Message message : messages) {
-            // Отмечаем только те сообщения, где текущий пользователь - получатель
-            if (message.getReceiver().getId().equals(currentUserId) && !message.getIsRead()) {
-                message.setIsRead(true);
-            }
+    public int markConversationAsRead(Long currentUserId, Long otherUserId) {
+        int updated = messageRepository.markAllAsReadFromSender(currentUserId, otherUserId);
+        if (updated > 0) {
+            conversationSummaryRepository.clearUnread(currentUserId, otherUserId);
+            unreadCounterCache.adjust(currentUserId, -updated);
+            webSocketNotificationService.notifyConversationRead(currentUserId, otherUserId, updated);
         }
-
-        messageRepository.saveAll(messages);
+        return updated;
     }
 
     /**
      * Получить количество непрочитанных сообщений для пользователя
+     * Берется из счетчика в памяти; при промахе считается запросом COUNT на основной базе,
+     * чтобы отстающая реплика не попала в счетчик
      */
-    @Transactional(readOnly = true)
     public Long getUnreadCount(Long userId) {
-        List<Message> unreadMessages = messageRepository.findByReceiverIdAndIsReadFalse(userId);
-        return (long) unreadMessages.size();
+        return unreadCounterCache.get(userId, () -> ReadYourWritesTracker.readFromPrimary(
+                () -> messageRepository.countByReceiverIdAndIsReadFalse(userId)));
+    }
+
+    public Map<String, Object> getUnreadCacheStats() {
+        return unreadCounterCache.getStats();
     }
 
     /**
@@ -178,6 +189,14 @@ public class MessageService {
         return messageRepository.countUnreadMessagesBetweenUsers(receiverId, senderId);
     }
 
+    /**
+     * Обновить сводку диалога владельца после нового сообщения (или создать ее)
+     */
+    private void updateConversationSummary(User owner, User partner, Message message, boolean fromMe) {
+        conversationSummaryRepository.recordMessage(owner.getId(), partner.getId(), getUserDisplayName(partner),
+                message.getContent(), message.getCreatedAt(), fromMe, fromMe ? 0 : 1);
+    }
+
     /**
      * Получить отображаемое имя пользователя
      */
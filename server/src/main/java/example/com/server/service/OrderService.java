@@ -1,25 +1,39 @@
 package example.com.server.service;
 
+import example.com.server.dto.OrderDTO;
+import example.com.server.dto.OrderFilter;
+import example.com.server.dto.PageCursor;
 import example.com.server.model.Order;
+import example.com.server.model.Product;
 import example.com.server.model.User;
+import example.com.server.repository.LikePatterns;
 import example.com.server.repository.OrderRepository;
 import example.com.server.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.criteria.Predicate;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 public class OrderService {
 
     private static final String DEFAULT_SORT = "createdAt,desc";
     private static final List<String> ALLOWED_SORT_FIELDS = List.of("id", "createdAt", "status");
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
+    public static final int MAX_PAGE_SIZE = 200;
+    private static final int EXPORT_FETCH_SIZE = 500;
 
     @Autowired
     private OrderRepository orderRepository;
@@ -27,6 +41,9 @@ public class OrderService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ProductService productService;
+
     public Order createOrder(Long userId, String description) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
@@ -34,46 +51,103 @@ public class OrderService {
         return orderRepository.save(order);
     }
 
-    public Optional<Order> findById(Long id) {
-        return orderRepository.findById(id);
+    /**
+     * Buy a single product: reserve it atomically and create the order in the same transaction.
+     * @throws IllegalStateException if the product was already sold (e.g. to a concurrent buyer)
+     */
+    @Transactional
+    public Order purchaseProduct(Long userId, Product product) {
+        if (!productService.reserveProduct(product.getId())) {
+            throw new IllegalStateException("Product is not available");
+        }
+        String description = "Purchase: " + product.getName() + " (ID: " + product.getId() + ")";
+        return createOrder(userId, description);
     }
 
-    public List<Order> findAll() {
-        return orderRepository.findAll();
+    @Transactional(readOnly = true)
+    public Optional<Order> findById(Long id) {
+        return orderRepository.findWithUserById(id);
     }
 
     /**
-     * Find orders with optional filters, search, and sort.
-     * @param userId filter by user id (optional)
-     * @param status filter by status (optional)
-     * @param search substring match on description, case-insensitive (optional)
-     * @param createdAfter orders created after this instant (optional)
-     * @param createdBefore orders created before this instant (optional)
+     * One page of the orders matching the filter, sorted as requested. The page is fetched with
+     * LIMIT/OFFSET and one extra row to tell whether there is a next page, so there is no COUNT query.
      * @param sortParam e.g. "createdAt,desc" or "status,asc"; default "createdAt,desc"
+     * @param size page size, capped at {@link #MAX_PAGE_SIZE}
+     */
+    @Transactional(readOnly = true)
+    public Slice<Order> findOrders(OrderFilter filter, String sortParam, int page, int size) {
+        PageRequest pageable = PageRequest.of(page, pageSize(size), parseSort(sortParam));
+        return orderRepository.findBy(specification(filter), q -> q.project("user").slice(pageable));
+    }
+
+    /**
+     * Keyset pagination over the orders matching the filter, newest first, continuing strictly after
+     * the (createdAt, id) position of the cursor.
+     * @param cursor position of the last order of the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public Slice<Order> findOrdersAfter(OrderFilter filter, PageCursor cursor, int size) {
+        int pageSize = pageSize(size);
+        Specification<Order> spec = specification(filter);
+        if (cursor != null) {
+            spec = spec.and((root, query, cb) -> cb.and(
+                    cb.lessThanOrEqualTo(root.get("createdAt"), cursor.getCreatedAt()),
+                    cb.or(
+                            cb.lessThan(root.get("createdAt"), cursor.getCreatedAt()),
+                            cb.lessThan(root.get("id"), cursor.getId()))));
+        }
+        List<Order> orders = orderRepository.findBy(spec,
+                q -> q.project("user").sortBy(NEWEST_FIRST).limit(pageSize + 1).all());
+        boolean hasNext = orders.size() > pageSize;
+        List<Order> content = hasNext ? orders.subList(0, pageSize) : orders;
+        return new SliceImpl<>(content, PageRequest.of(0, pageSize, NEWEST_FIRST), hasNext);
+    }
+
+    /**
+     * Pass every order matching the filter, newest first, to the consumer without loading them all
+     * into memory (see OrderRepositoryCustom#streamOrders).
+     */
+    @Transactional(readOnly = true)
+    public void exportOrders(OrderFilter filter, Consumer<OrderDTO> consumer) {
+        orderRepository.streamOrders(filter, EXPORT_FETCH_SIZE, consumer);
+    }
+
+    /**
+     * Whether the sort parameter is the newest-first order that keyset pagination follows.
      */
-    public List<Order> findOrders(Long userId, Order.Status status, String search,
-                                  Instant createdAfter, Instant createdBefore, String sortParam) {
-        Specification<Order> spec = (root, query, cb) -> {
+    public boolean isDefaultSort(String sortParam) {
+        return parseSort(sortParam).equals(parseSort(DEFAULT_SORT));
+    }
+
+    private static int pageSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private Specification<Order> specification(OrderFilter filter) {
+        return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
-            if (userId != null) {
-                predicates.add(cb.equal(root.get("user").get("id"), userId));
+            if (filter.userId() != null) {
+                predicates.add(cb.equal(root.get("user").get("id"), filter.userId()));
             }
-            if (status != null) {
-                predicates.add(cb.equal(root.get("status"), status));
+            if (filter.status() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.status()));
             }
-            if (search != null && !search.isBlank()) {
-                predicates.add(cb.like(cb.lower(root.get("description")), "%" + search.toLowerCase() + "%"));
+            if (filter.hasSearch()) {
+                predicates.add(cb.like(cb.lower(root.get("description")),
+                        LikePatterns.containsIgnoreCase(filter.search()), LikePatterns.ESCAPE));
             }
-            if (createdAfter != null) {
-                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), createdAfter));
+            if (filter.createdAfter() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), filter.createdAfter()));
             }
-            if (createdBefore != null) {
-                predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), createdBefore));
+            if (filter.createdBefore() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), filter.createdBefore()));
             }
             return cb.and(predicates.toArray(Predicate[]::new));
         };
-        Sort sort = parseSort(sortParam);
-        return orderRepository.findAll(spec, sort);
     }
 
     private Sort parseSort(String sortParam) {
@@ -88,26 +162,22 @@ public class OrderService {
         Sort.Direction direction = parts.length > 1 && "asc".equalsIgnoreCase(parts[1].trim())
                 ? Sort.Direction.ASC
                 : Sort.Direction.DESC;
-        return Sort.by(direction, field);
-    }
-
-    public List<Order> findByUserId(Long userId) {
-        return orderRepository.findByUserId(userId);
-    }
-
-    public List<Order> findByStatus(Order.Status status) {
-        return orderRepository.findByStatus(status);
+        // The id tie-breaker keeps the order of equal values stable from one page to the next
+        Sort sort = Sort.by(direction, field);
+        return field.equals("id") ? sort : sort.and(Sort.by(direction, "id"));
     }
 
+    @Transactional
     public Order updateStatus(Long orderId, Order.Status status) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithUserById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
         order.setStatus(status);
         return orderRepository.save(order);
     }
 
+    @Transactional
     public Order updateOrder(Long orderId, String description, Order.Status status) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithUserById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
         if (description != null) {
             order.setDescription(description);
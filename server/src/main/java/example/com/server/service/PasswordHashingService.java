@@ -0,0 +1,164 @@
+package example.com.server.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs BCrypt hashing and verification on a small dedicated pool instead of request threads,
+ * so a burst of logins cannot occupy every web worker. When the pool and its queue are full,
+ * new requests are rejected immediately with {@link RejectedExecutionException}; so is a request that
+ * waited in the queue for longer than the queue timeout. Once a hash has started it runs to the end.
+ * How long hashes take and how long they waited for a thread are recorded as the timers
+ * auth.hashing.duration and auth.hashing.queue.wait.
+ */
+@Service
+public class PasswordHashingService {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long queueTimeoutNanos;
+
+    private final LongAdder rejected = new LongAdder();
+    private final Timer hashTimer;
+    private final Timer queueWaitTimer;
+
+    public PasswordHashingService(@Value("${auth.hashing.pool-size:0}") int poolSize,
+                                  @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${auth.hashing.queue-timeout:PT5S}") Duration queueTimeout,
+                                  MeterRegistry meterRegistry) {
+        int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.queueCapacity = queueCapacity;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.hashTimer = Timer.builder("auth.hashing.duration")
+                .description("Time a password hash or check took on the hashing pool")
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("auth.hashing.queue.wait")
+                .description("Time a password hash waited for a hashing thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Check a raw password against a stored hash.
+     * @throws RejectedExecutionException if the hashing pool is saturated
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Hash a password with the configured cost.
+     * @throws RejectedExecutionException if the hashing pool is saturated
+     */
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Whether a stored hash was made with a different cost than the configured one and should be rehashed.
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        return encodedPassword != null && passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        // Claimed either by the pool thread that starts the hash or by the caller giving up on the queue
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                long startedAt = System.nanoTime();
+                queueWaitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new RejectedExecutionException("Password hashing is saturated", ex);
+        }
+
+        try {
+            try {
+                return future.get(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                if (claimed.compareAndSet(false, true)) {
+                    // Still queued: free its slot, it will not run
+                    executor.remove((Runnable) future);
+                    rejected.increment();
+                    throw new RejectedExecutionException("Password hashing queue wait timed out", ex);
+                }
+                // Already hashing: the result is only a hash away
+                return future.get();
+            }
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * Pool state and totals; maxHashMillis is the slowest hash of the timer's recent window.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completed", hashTimer.count());
+        stats.put("rejected", rejected.sum());
+        stats.put("avgHashMillis", hashTimer.mean(TimeUnit.MILLISECONDS));
+        stats.put("maxHashMillis", hashTimer.max(TimeUnit.MILLISECONDS));
+        stats.put("avgQueueWaitMillis", queueWaitTimer.mean(TimeUnit.MILLISECONDS));
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
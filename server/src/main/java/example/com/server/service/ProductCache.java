@@ -0,0 +1,165 @@
+package example.com.server.service;
+
+import example.com.server.model.Product;
+import example.com.server.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded read-through cache of product snapshots used by ProductService.findById.
+ * Entries are evicted least-recently-used when the cache is full and expire after a fixed TTL.
+ * Callers always get a fresh detached Product built from the snapshot, never a shared instance.
+ */
+@Component
+public class ProductCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Bumped on every invalidation so that loads which started before it are not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ProductCache(@Value("${products.cache.max-size:10000}") int maxSize,
+                        @Value("${products.cache.ttl:PT5M}") Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Immutable copy of a product together with the seller fields needed to display it.
+     */
+    public record Snapshot(Long id, String name, String description, Double price, String imageUrl,
+                           String category, Instant createdAt, Boolean isAvailable,
+                           Long sellerId, String sellerFullName, String sellerLogin) {
+
+        static Snapshot of(Product product) {
+            User seller = product.getSeller();
+            return new Snapshot(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                    product.getImageUrl(), product.getCategory(), product.getCreatedAt(), product.getIsAvailable(),
+                    seller.getId(), seller.getFullName(), seller.getLogin());
+        }
+
+        Product toProduct() {
+            User seller = new User();
+            seller.setId(sellerId);
+            seller.setFullName(sellerFullName);
+            seller.setLogin(sellerLogin);
+
+            Product product = new Product(name, description, price, imageUrl, seller, category);
+            product.setId(id);
+            product.setCreatedAt(createdAt);
+            product.setIsAvailable(isAvailable);
+            return product;
+        }
+    }
+
+    private record Entry(Snapshot snapshot, long expiresAt) {
+    }
+
+    public Optional<Product> get(Long id) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.expiresAt() - System.nanoTime() > 0) {
+                hits.increment();
+                return Optional.of(entry.snapshot().toProduct());
+            }
+            if (entry != null) {
+                entries.remove(id);
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Returns a token to pass to {@link #put(Product, long)} after loading a product from the database.
+     */
+    public long beginLoad() {
+        return invalidations.get();
+    }
+
+    /**
+     * Cache a product loaded from the database, unless an invalidation happened since {@link #beginLoad()}.
+     */
+    public void put(Product product, long loadToken) {
+        Snapshot snapshot = Snapshot.of(product);
+        lock.lock();
+        try {
+            if (invalidations.get() != loadToken) {
+                return;
+            }
+            entries.put(snapshot.id(), new Entry(snapshot, System.nanoTime() + ttlNanos));
+            Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxSize && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(Long id) {
+        lock.lock();
+        try {
+            invalidations.incrementAndGet();
+            entries.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop all products of a seller, e.g. after the seller changed their display name.
+     */
+    public void invalidateSeller(Long sellerId) {
+        lock.lock();
+        try {
+            invalidations.incrementAndGet();
+            entries.values().removeIf(entry -> entry.snapshot().sellerId().equals(sellerId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        return stats;
+    }
+}
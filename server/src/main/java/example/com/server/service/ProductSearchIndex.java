@@ -0,0 +1,259 @@
+package example.com.server.service;
+
+import example.com.server.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product name and description.
+ * Terms are lowercased alphanumeric tokens; every query token is matched as a prefix
+ * and all query tokens must match. Results are ranked by a tf-idf style score where
+ * name matches weigh more than description matches and exact terms more than prefixes.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final double PREFIX_MATCH_FACTOR = 0.5;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> (product id -> term weight in that product)
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, IndexedProduct> products = new HashMap<>();
+    private volatile boolean ready = false;
+
+    public record SearchResult(List<Long> productIds, long totalMatches) {
+    }
+
+    private record IndexedProduct(Long id, Map<String, Integer> terms, String category, Long sellerId,
+                                  boolean available, Instant createdAt) {
+    }
+
+    private record ScoredProduct(IndexedProduct product, double score) {
+    }
+
+    /**
+     * Add or replace a product in the index.
+     */
+    public void index(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, product.getName(), NAME_WEIGHT);
+        addTerms(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+        IndexedProduct indexed = new IndexedProduct(
+                product.getId(),
+                terms,
+                product.getCategory(),
+                product.getSeller() != null ? product.getSeller().getId() : null,
+                Boolean.TRUE.equals(product.getIsAvailable()),
+                product.getCreatedAt()
+        );
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(product.getId());
+            products.put(indexed.id(), indexed);
+            for (Map.Entry<String, Integer> term : terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), k -> new HashMap<>())
+                        .put(indexed.id(), term.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Update only the availability flag of an indexed product.
+     */
+    public void updateAvailability(Long productId, boolean available) {
+        lock.writeLock().lock();
+        try {
+            IndexedProduct indexed = products.get(productId);
+            if (indexed != null && indexed.available() != available) {
+                products.put(productId, new IndexedProduct(indexed.id(), indexed.terms(), indexed.category(),
+                        indexed.sellerId(), available, indexed.createdAt()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Mark the index as fully built. Until then callers should fall back to database search.
+     */
+    public void markReady() {
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns true if the query contains at least one searchable token.
+     */
+    public boolean isSearchable(String query) {
+        return !tokenize(query).isEmpty();
+    }
+
+    /**
+     * Search the index and return one page of ranked product ids.
+     * @param query free text, every token is matched as a term prefix
+     * @param category exact category filter (optional)
+     * @param sellerId seller filter (optional)
+     * @param availableOnly only available products
+     * @param offset number of ranked results to skip
+     * @param limit maximum number of ids to return
+     */
+    public SearchResult search(String query, String category, Long sellerId, boolean availableOnly,
+                               int offset, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+        // The longest token is usually the most selective one, so it drives candidate selection
+        tokens.sort(Comparator.comparingInt(String::length).reversed());
+        String driver = tokens.get(0);
+        List<String> others = tokens.subList(1, tokens.size());
+
+        List<ScoredProduct> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int totalProducts = Math.max(products.size(), 1);
+            Map<Long, Double> candidates = new HashMap<>();
+            for (Map.Entry<String, Map<Long, Integer>> entry : prefixRange(driver).entrySet()) {
+                double idf = idf(totalProducts, entry.getValue().size());
+                double factor = entry.getKey().equals(driver) ? 1.0 : PREFIX_MATCH_FACTOR;
+                for (Map.Entry<Long, Integer> posting : entry.getValue().entrySet()) {
+                    candidates.merge(posting.getKey(), posting.getValue() * idf * factor, Math::max);
+                }
+            }
+
+            for (Map.Entry<Long, Double> candidate : candidates.entrySet()) {
+                IndexedProduct product = products.get(candidate.getKey());
+                if (product == null || !matchesFilters(product, category, sellerId, availableOnly)) {
+                    continue;
+                }
+                double score = candidate.getValue();
+                for (String token : others) {
+                    double tokenScore = scoreToken(product, token, totalProducts);
+                    if (tokenScore == 0) {
+                        score = 0;
+                        break;
+                    }
+                    score += tokenScore;
+                }
+                if (score > 0) {
+                    matches.add(new ScoredProduct(product, score));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(Comparator.comparingDouble(ScoredProduct::score).reversed()
+                .thenComparing(scored -> scored.product().createdAt(), Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(scored -> scored.product().id(), Comparator.reverseOrder()));
+
+        int from = Math.min(offset, matches.size());
+        int to = Math.min(from + limit, matches.size());
+        List<Long> ids = new ArrayList<>(to - from);
+        for (ScoredProduct scored : matches.subList(from, to)) {
+            ids.add(scored.product().id());
+        }
+        return new SearchResult(ids, matches.size());
+    }
+
+    private double scoreToken(IndexedProduct product, String token, int totalProducts) {
+        double best = 0;
+        for (Map.Entry<String, Integer> term : product.terms().entrySet()) {
+            if (!term.getKey().startsWith(token)) {
+                continue;
+            }
+            Map<Long, Integer> termPostings = postings.get(term.getKey());
+            double idf = idf(totalProducts, termPostings != null ? termPostings.size() : 1);
+            double factor = term.getKey().equals(token) ? 1.0 : PREFIX_MATCH_FACTOR;
+            best = Math.max(best, term.getValue() * idf * factor);
+        }
+        return best;
+    }
+
+    private boolean matchesFilters(IndexedProduct product, String category, Long sellerId, boolean availableOnly) {
+        if (category != null && !category.isEmpty() && !category.equals(product.category())) {
+            return false;
+        }
+        if (sellerId != null && !sellerId.equals(product.sellerId())) {
+            return false;
+        }
+        return !availableOnly || product.available();
+    }
+
+    private NavigableMap<String, Map<Long, Integer>> prefixRange(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private void removeUnlocked(Long productId) {
+        IndexedProduct previous = products.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms().keySet()) {
+            Map<Long, Integer> termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(productId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static double idf(int totalProducts, int productsWithTerm) {
+        return Math.log(1.0 + (double) totalProducts / productsWithTerm);
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,21 +1,41 @@
 package example.com.server.service;
 
+import example.com.server.datasource.ReadYourWritesTracker;
+import example.com.server.dto.PageCursor;
+import example.com.server.dto.ProductListItem;
 import example.com.server.model.Product;
 import example.com.server.model.User;
+import example.com.server.repository.LikePatterns;
 import example.com.server.repository.ProductRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import jakarta.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
-public class ProductService {
+public class ProductService implements SmartInitializingSingleton {
+
+    private static final int INDEX_BUILD_BATCH_SIZE = 1000;
 
     @Autowired
     private ProductRepository productRepository;
@@ -23,17 +43,71 @@ public class ProductService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductCache productCache;
+
+    /**
+     * Build the search index once all beans exist, before the web server starts accepting requests.
+     * Built later, a batch read just before a concurrent update or delete commits could put the old row
+     * back into the index after that change's after-commit hook has already run.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        buildSearchIndex();
+    }
+
+    /**
+     * Load all existing products into the search index. Only safe while no products are being written.
+     */
+    public void buildSearchIndex() {
+        Long lastId = 0L;
+        List<Product> batch;
+        do {
+            Long afterId = lastId;
+            batch = productRepository.findBy(
+                    (Specification<Product>) (root, query, cb) -> cb.greaterThan(root.get("id"), afterId),
+                    q -> q.sortBy(Sort.by("id")).limit(INDEX_BUILD_BATCH_SIZE).all());
+            for (Product product : batch) {
+                searchIndex.index(product);
+                lastId = product.getId();
+            }
+        } while (batch.size() == INDEX_BUILD_BATCH_SIZE);
+        searchIndex.markReady();
+    }
+
     public Product createProduct(Long sellerId, String name, String description, Double price,
                                   String category, String imageUrl) {
         User seller = userService.findById(sellerId)
                 .orElseThrow(() -> new IllegalArgumentException("Seller not found: " + sellerId));
 
         Product product = new Product(name, description, price, imageUrl, seller, category);
-        return productRepository.save(product);
+        product = productRepository.save(product);
+        searchIndex.index(product);
+        return product;
     }
 
+    /**
+     * Find a product by id. Served from the product cache when possible; the returned
+     * product is a detached copy whose seller only carries id, full name and login.
+     * A miss is loaded from the primary, so a lagging replica cannot put a stale product into the cache.
+     */
     public Optional<Product> findById(Long id) {
-        return productRepository.findById(id);
+        Optional<Product> cached = productCache.get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long loadToken = productCache.beginLoad();
+        Optional<Product> product =
+                ReadYourWritesTracker.readFromPrimary(() -> productRepository.findWithSellerById(id));
+        product.ifPresent(p -> productCache.put(p, loadToken));
+        return product;
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return productCache.getStats();
     }
 
     public List<Product> findAll() {
@@ -45,50 +119,107 @@ public class ProductService {
         return productRepository.findAll(pageable);
     }
 
-    public Page<Product> findAllWithFilters(String category, String search, Long sellerId,
-                                            Boolean availableOnly, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-
-        // For simplicity, we'll fetch all products and filter in memory for search functionality
-        // In production, you'd want to use JPA Specifications or a more sophisticated approach
-        List<Product> products;
+    /**
+     * Find products matching all given filters, paginated and sorted by creation date (newest first).
+     * Filtering, ordering, LIMIT/OFFSET and the total count are all done by the database.
+     * When a search term is given, products are ranked by relevance using the search index
+     * and only the requested page is loaded from the database.
+     * Rows are list projections read together with the seller's name, not managed entities.
+     * @param category exact category match (optional)
+     * @param search substring match on name or description, case-insensitive (optional)
+     * @param sellerId filter by seller id (optional)
+     * @param availableOnly only products that are still available (optional)
+     */
+    @Transactional(readOnly = true)
+    public Page<ProductListItem> findAllWithFilters(String category, String search, Long sellerId,
+                                                    Boolean availableOnly, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+        if (search != null && !search.isEmpty() && searchIndex.isReady() && searchIndex.isSearchable(search)) {
+            return searchWithIndex(category, search, sellerId, availableOnly, pageable);
+        }
+        return productRepository.findListItems(filterSpecification(category, search, sellerId, availableOnly),
+                pageable);
+    }
 
-        if (category != null && !category.isEmpty()) {
-            products = productRepository.findByCategory(category);
-        } else if (sellerId != null) {
-            products = productRepository.findBySellerId(sellerId);
-        } else if (availableOnly != null && availableOnly) {
-            // Fetch all available products
-            products = productRepository.findAll().stream()
-                    .filter(Product::getIsAvailable)
-                    .toList();
-        } else {
-            products = productRepository.findAll();
+    /**
+     * Keyset ("seek") pagination over the product feed, newest first.
+     * Each page continues strictly after the (createdAt, id) position of the cursor, so the cost
+     * does not depend on how deep the client has scrolled and concurrent inserts cause no duplicates.
+     * @param cursor position of the last product of the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public Slice<ProductListItem> findFeedAfter(String category, String search, Long sellerId,
+                                                Boolean availableOnly, PageCursor cursor, int size) {
+        Specification<Product> spec = filterSpecification(category, search, sellerId, availableOnly);
+        if (cursor != null) {
+            // Written as createdAt <= c AND (createdAt < c OR id < i), so the leading bound is an index range
+            spec = spec.and((root, query, cb) -> cb.and(
+                    cb.lessThanOrEqualTo(root.get("createdAt"), cursor.getCreatedAt()),
+                    cb.or(
+                            cb.lessThan(root.get("createdAt"), cursor.getCreatedAt()),
+                            cb.lessThan(root.get("id"), cursor.getId()))));
         }
+        Sort sort = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+        // Fetch one extra row to find out whether there is a next page without a COUNT query
+        List<ProductListItem> products = productRepository.findListItems(spec, sort, size + 1);
+        boolean hasNext = products.size() > size;
+        List<ProductListItem> content = hasNext ? products.subList(0, size) : products;
+        return new SliceImpl<>(content, PageRequest.of(0, size, sort), hasNext);
+    }
 
-        // Apply search filter if provided
-        if (search != null && !search.isEmpty()) {
-            String searchLower = search.toLowerCase();
-            products = products.stream()
-                    .filter(product ->
-                            (product.getName() != null && product.getName().toLowerCase().contains(searchLower)) ||
-                                    (product.getDescription() != null && product.getDescription().toLowerCase().contains(searchLower)))
-                    .toList();
+    private Page<ProductListItem> searchWithIndex(String category, String search, Long sellerId,
+                                                  Boolean availableOnly, Pageable pageable) {
+        ProductSearchIndex.SearchResult result = searchIndex.search(search, category, sellerId,
+                availableOnly != null && availableOnly, (int) pageable.getOffset(), pageable.getPageSize());
+        if (result.productIds().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, result.totalMatches());
         }
 
-        // Simple pagination for in-memory filtering
-        int start = page * size;
-        int end = Math.min(start + size, products.size());
-        List<Product> pagedProducts = start < products.size()
-                ? products.subList(start, end)
-                : List.of();
+        // Keep the ranked order of the index when loading the page
+        Map<Long, ProductListItem> byId = new HashMap<>();
+        Specification<Product> byIds = (root, query, cb) -> root.get("id").in(result.productIds());
+        for (ProductListItem product : productRepository.findListItems(byIds, Sort.unsorted(),
+                result.productIds().size())) {
+            byId.put(product.id(), product);
+        }
+        List<ProductListItem> content = new ArrayList<>(result.productIds().size());
+        for (Long id : result.productIds()) {
+            ProductListItem product = byId.get(id);
+            if (product != null) {
+                content.add(product);
+            }
+        }
+        // Ids whose rows are gone (deleted, index not yet updated) are not counted either
+        long unresolved = result.productIds().size() - content.size();
+        return new PageImpl<>(content, pageable, result.totalMatches() - unresolved);
+    }
 
-        return new org.springframework.data.domain.PageImpl<>(pagedProducts, pageable, products.size());
+    private Specification<Product> filterSpecification(String category, String search, Long sellerId,
+                                                       Boolean availableOnly) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (category != null && !category.isEmpty()) {
+                predicates.add(cb.equal(root.get("category"), category));
+            }
+            if (sellerId != null) {
+                predicates.add(cb.equal(root.get("seller").get("id"), sellerId));
+            }
+            if (availableOnly != null && availableOnly) {
+                predicates.add(cb.isTrue(root.get("isAvailable")));
+            }
+            if (search != null && !search.isEmpty()) {
+                String pattern = LikePatterns.containsIgnoreCase(search);
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("name")), pattern, LikePatterns.ESCAPE),
+                        cb.like(cb.lower(root.get("description")), pattern, LikePatterns.ESCAPE)));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
     }
 
     public Product updateProduct(Long id, String name, String description, Double price,
                                  String category, Boolean isAvailable) {
-        Product product = productRepository.findById(id)
+        Product product = productRepository.findWithSellerById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found: " + id));
 
         if (name != null) {
@@ -107,7 +238,69 @@ public class ProductService {
             product.setIsAvailable(isAvailable);
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        afterCommit(() -> {
+            productCache.invalidate(id);
+            searchIndex.index(saved);
+        });
+        return saved;
+    }
+
+    /**
+     * Reserve the given products for purchase by marking them unavailable with one bulk update.
+     * Products that are already unavailable are skipped.
+     * @return ids of the products that were reserved by this call
+     */
+    @Transactional
+    public Set<Long> reserveProducts(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Set.of();
+        }
+        List<Long> availableIds = productRepository.lockAvailableIds(productIds);
+        if (availableIds.isEmpty()) {
+            return Set.of();
+        }
+        productRepository.markUnavailable(availableIds);
+        afterCommit(() -> availableIds.forEach(id -> {
+            productCache.invalidate(id);
+            searchIndex.updateAvailability(id, false);
+        }));
+        return new HashSet<>(availableIds);
+    }
+
+    /**
+     * Reserve a single product for purchase with one compare-and-set update, without locking.
+     * @return true if this call reserved the product, false if it was already unavailable
+     */
+    @Transactional
+    public boolean reserveProduct(Long id) {
+        if (productRepository.markUnavailableIfAvailable(id) == 0) {
+            return false;
+        }
+        afterCommit(() -> {
+            productCache.invalidate(id);
+            searchIndex.updateAvailability(id, false);
+        });
+        return true;
+    }
+
+    /**
+     * Run the action once the current transaction commits (immediately when there is no transaction),
+     * so that a rolled back reservation never shows up in the search index.
+     * Product cache invalidations go through here as well: invalidated before the commit, a concurrent
+     * findById could reload the still committed old row and cache it for the whole TTL.
+     */
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     public void deleteProduct(Long id) {
@@ -115,6 +308,10 @@ public class ProductService {
             throw new IllegalArgumentException("Product not found: " + id);
         }
         productRepository.deleteById(id);
+        afterCommit(() -> {
+            productCache.invalidate(id);
+            searchIndex.remove(id);
+        });
     }
 
     public List<Product> findBySellerId(Long sellerId) {
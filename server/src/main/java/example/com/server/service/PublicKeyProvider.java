@@ -0,0 +1,15 @@
+package example.com.server.service;
+
+import java.security.PublicKey;
+import java.util.Optional;
+
+/**
+ * Source of public keys used to verify signed tokens, looked up by key id ("kid").
+ */
+public interface PublicKeyProvider {
+
+    /**
+     * Return the key with the given id if it is currently known. Implementations must not block on the network.
+     */
+    Optional<PublicKey> getKey(String keyId);
+}
@@ -3,8 +3,10 @@ package example.com.server.service;
 import example.com.server.dto.RatingRequestDTO;
 import example.com.server.dto.RatingResponseDTO;
 import example.com.server.dto.RatingStatsDTO;
+import example.com.server.model.ProducerRatingStats;
 import example.com.server.model.Rating;
 import example.com.server.model.User;
+import example.com.server.repository.ProducerRatingStatsRepository;
 import example.com.server.repository.RatingRepository;
 import example.com.server.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +26,9 @@ public class RatingService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ProducerRatingStatsRepository producerRatingStatsRepository;
+
     /**
      * Создать или обновить рейтинг
      */
@@ -42,33 +47,34 @@ public class RatingService {
             throw new RuntimeException("You cannot rate yourself");
         }
 
-        // Проверить, существует ли уже рейтинг
-        Optional<Rating> existingRating = ratingRepository.findByCustomerAndProducer(customer, producer);
+        // Проверить, существует ли уже рейтинг, и заблокировать его: иначе два одновременных изменения
+        // одной оценки вычтут из статистики одно и то же старое значение
+        Optional<Rating> existingRating = ratingRepository.findForUpdateByCustomerAndProducer(customer, producer);
 
         Rating rating;
+        ProducerRatingStats delta = new ProducerRatingStats(producer.getId());
         if (existingRating.isPresent()) {
             // Обновить существующий рейтинг
             rating = existingRating.get();
+            delta.add(rating.getRatingValue(), -1);
             rating.setRatingValue(requestDTO.getRatingValue());
         } else {
             // Создать новый рейтинг
             rating = new Rating(customer, producer, requestDTO.getRatingValue());
         }
+        delta.add(rating.getRatingValue(), 1);
 
         rating = ratingRepository.save(rating);
+        applyStatsDelta(delta);
         return convertToResponseDTO(rating);
     }
 
     /**
      * Получить рейтинг, который заказчик поставил исполнителю
+     * Заказчик и исполнитель загружаются тем же запросом: сессия закрывается до построения ответа
      */
     public Optional<RatingResponseDTO> getRatingByCustomerAndProducer(Long customerId, Long producerId) {
-        User customer = userRepository.findById(customerId)
-                .orElseThrow(() -> new RuntimeException("Customer not found"));
-        User producer = userRepository.findById(producerId)
-                .orElseThrow(() -> new RuntimeException("Producer not found"));
-
-        return ratingRepository.findByCustomerAndProducer(customer, producer)
+        return ratingRepository.findByCustomerIdAndProducerId(customerId, producerId)
                 .map(this::convertToResponseDTO);
     }
 
@@ -84,25 +90,26 @@ public class RatingService {
 
     /**
      * Получить статистику рейтинга исполнителя
+     * Читается из накопленной статистики одним запросом по первичному ключу; если строки еще нет,
+     * гистограмма считается одним запросом GROUP BY
      */
+    @Transactional(readOnly = true)
     public RatingStatsDTO getProducerRatingStats(Long producerId) {
-        // Проверить, что исполнитель существует
-        userRepository.findById(producerId)
-                .orElseThrow(() -> new RuntimeException("Producer not found with id: " + producerId));
-
-        Double averageRating = ratingRepository.calculateAverageRating(producerId);
-        Long totalRatings = ratingRepository.countByProducerId(producerId);
-
-        RatingStatsDTO stats = new RatingStatsDTO(producerId, averageRating != null ? averageRating : 0.0, totalRatings);
+        Optional<ProducerRatingStats> cached = producerRatingStatsRepository.findById(producerId);
+        if (cached.isPresent()) {
+            return convertToStatsDTO(cached.get());
+        }
 
-        // Посчитать количество оценок по звездам
-        stats.setFiveStars(ratingRepository.countByProducerIdAndRatingValue(producerId, 5));
-        stats.setFourStars(ratingRepository.countByProducerIdAndRatingValue(producerId, 4));
-        stats.setThreeStars(ratingRepository.countByProducerIdAndRatingValue(producerId, 3));
-        stats.setTwoStars(ratingRepository.countByProducerIdAndRatingValue(producerId, 2));
-        stats.setOneStar(ratingRepository.countByProducerIdAndRatingValue(producerId, 1));
+        // Проверить, что исполнитель существует
+        if (!userRepository.existsById(producerId)) {
+            throw new RuntimeException("Producer not found with id: " + producerId);
+        }
 
-        return stats;
+        ProducerRatingStats stats = new ProducerRatingStats(producerId);
+        for (Object[] row : ratingRepository.countByRatingValueForProducer(producerId)) {
+            stats.add((Integer) row[0], (Long) row[1]);
+        }
+        return convertToStatsDTO(stats);
     }
 
     /**
@@ -115,10 +122,14 @@ public class RatingService {
         User producer = userRepository.findById(producerId)
                 .orElseThrow(() -> new RuntimeException("Producer not found"));
 
-        Rating rating = ratingRepository.findByCustomerAndProducer(customer, producer)
+        Rating rating = ratingRepository.findForUpdateByCustomerAndProducer(customer, producer)
                 .orElseThrow(() -> new RuntimeException("Rating not found"));
 
         ratingRepository.delete(rating);
+
+        ProducerRatingStats delta = new ProducerRatingStats(producerId);
+        delta.add(rating.getRatingValue(), -1);
+        applyStatsDelta(delta);
     }
 
     /**
@@ -128,6 +139,35 @@ public class RatingService {
         return ratingRepository.existsByCustomerIdAndProducerId(customerId, producerId);
     }
 
+    /**
+     * Атомарно прибавить изменения к накопленной статистике исполнителя
+     */
+    private void applyStatsDelta(ProducerRatingStats delta) {
+        if (delta.getRatingCount() == 0 && delta.getRatingSum() == 0) {
+            // Оценка не изменилась
+            return;
+        }
+        producerRatingStatsRepository.applyDelta(delta.getProducerId(), delta.getRatingSum(), delta.getRatingCount(),
+                delta.getOneStar(), delta.getTwoStars(), delta.getThreeStars(),
+                delta.getFourStars(), delta.getFiveStars());
+    }
+
+    /**
+     * Конвертировать накопленную статистику в RatingStatsDTO
+     */
+    private RatingStatsDTO convertToStatsDTO(ProducerRatingStats stats) {
+        long total = stats.getRatingCount();
+        double average = total > 0 ? (double) stats.getRatingSum() / total : 0.0;
+
+        RatingStatsDTO dto = new RatingStatsDTO(stats.getProducerId(), average, total);
+        dto.setFiveStars(stats.getFiveStars());
+        dto.setFourStars(stats.getFourStars());
+        dto.setThreeStars(stats.getThreeStars());
+        dto.setTwoStars(stats.getTwoStars());
+        dto.setOneStar(stats.getOneStar());
+        return dto;
+    }
+
     /**
      * Конвертировать Rating в RatingResponseDTO
      */
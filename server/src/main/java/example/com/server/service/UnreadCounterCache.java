@@ -0,0 +1,208 @@
+package example.com.server.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-user count of unread incoming messages kept in memory.
+ * A counter is loaded from the database and then adjusted when messages are sent or read.
+ * Adjustments are applied after the surrounding transaction commits. A load that overlaps
+ * an adjustment of the same user is not cached, and a loaded count expires after the TTL and is
+ * counted again, so a counter that drifted from the database (e.g. after a direct SQL update) heals.
+ * Past the size bound the least recently used idle counters are evicted.
+ * Counters are updated with compare-and-set only: the count and a version that every adjustment bumps
+ * share one AtomicLong, so a load is stored only if no adjustment started or completed meanwhile.
+ */
+@Component
+public class UnreadCounterCache {
+
+    // Count half of a counter's state while the count is not loaded
+    private static final int UNKNOWN = -1;
+    private static final long VERSION_STEP = 1L << 32;
+
+    private final int maxEntries;
+    // Eviction goes down to this size, so it does not run again for the next few new users
+    private final int evictTo;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<Long, Counter> counters = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public UnreadCounterCache(@Value("${messages.unread-cache.max-entries:100000}") int maxEntries,
+                              @Value("${messages.unread-cache.ttl:PT10M}") Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.evictTo = maxEntries - maxEntries / 10;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    private static final class Counter {
+        // Version in the high 32 bits, count in the low 32 bits (UNKNOWN until loaded).
+        // The version changes whenever an adjustment starts or completes
+        private final AtomicLong state = new AtomicLong(pack(0, UNKNOWN));
+        // Adjustments registered but whose transaction has not completed yet
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile long loadedAt;
+
+        // Last get or adjust, for least-recently-used eviction
+        private volatile long lastUsed = System.nanoTime();
+    }
+
+    private record Candidate(Long userId, Counter counter, long lastUsed) {
+    }
+
+    private static long pack(long state, int count) {
+        return (state & ~0xFFFFFFFFL) | (count & 0xFFFFFFFFL);
+    }
+
+    private static int count(long state) {
+        return (int) state;
+    }
+
+    /**
+     * Get the unread count of a user, loading it with the given loader on a miss or once the count expired.
+     */
+    public long get(Long userId, LongSupplier loader) {
+        long now = System.nanoTime();
+        Counter counter = counters.computeIfAbsent(userId, k -> new Counter());
+        counter.lastUsed = now;
+
+        long state = counter.state.get();
+        if (count(state) != UNKNOWN) {
+            if (now - counter.loadedAt < ttlNanos) {
+                hits.increment();
+                return count(state);
+            }
+            expirations.increment();
+        }
+        misses.increment();
+        // Read after the state: an adjustment registered in between bumps the version and fails the store
+        boolean quiet = counter.inFlight.get() == 0;
+
+        long loaded = loader.getAsLong();
+        if (quiet && loaded <= Integer.MAX_VALUE && counter.state.compareAndSet(state, pack(state, (int) loaded))) {
+            counter.loadedAt = now;
+        }
+        evictIfFull();
+        return loaded;
+    }
+
+    /**
+     * Adjust the unread count of a user by delta once the current transaction commits
+     * (immediately when there is no transaction).
+     */
+    public void adjust(Long userId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        // Registered in the same map operation that finds the counter, so eviction cannot drop it in between
+        Counter counter = counters.compute(userId, (k, existing) -> {
+            Counter c = existing != null ? existing : new Counter();
+            c.inFlight.incrementAndGet();
+            c.state.addAndGet(VERSION_STEP);
+            return c;
+        });
+        counter.lastUsed = System.nanoTime();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            complete(counter, delta, true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                complete(counter, delta, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private void complete(Counter counter, long delta, boolean committed) {
+        // The delta and the version bump land in one compare-and-set, so no load can slip in between
+        counter.state.updateAndGet(state -> {
+            int count = count(state);
+            if (committed && count != UNKNOWN) {
+                count = (int) Math.min(Integer.MAX_VALUE, Math.max(0, count + delta));
+            }
+            return pack(state + VERSION_STEP, count);
+        });
+        counter.inFlight.decrementAndGet();
+    }
+
+    /**
+     * Evict the least recently used idle counters once the cache is over its bound. One thread evicts
+     * at a time; the others carry on, so the cache can briefly hold a few entries more than the bound.
+     */
+    private void evictIfFull() {
+        if (counters.size() <= maxEntries || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // Snapshot the access times: they keep changing while the candidates are sorted
+            List<Candidate> candidates = new ArrayList<>(counters.size());
+            counters.forEach((userId, counter) -> candidates.add(new Candidate(userId, counter, counter.lastUsed)));
+            candidates.sort(Comparator.comparingLong(Candidate::lastUsed));
+
+            int toEvict = candidates.size() - evictTo;
+            for (Candidate candidate : candidates) {
+                if (toEvict <= 0) {
+                    break;
+                }
+                if (evictIdle(candidate)) {
+                    toEvict--;
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private boolean evictIdle(Candidate candidate) {
+        boolean[] evicted = new boolean[1];
+        counters.computeIfPresent(candidate.userId(), (k, counter) -> {
+            if (counter != candidate.counter() || counter.lastUsed != candidate.lastUsed()) {
+                // Replaced or used again since the snapshot
+                return counter;
+            }
+            if (counter.inFlight.get() > 0) {
+                return counter;
+            }
+            evicted[0] = true;
+            return null;
+        });
+        return evicted[0];
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", counters.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", Duration.ofNanos(ttlNanos).toSeconds());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("expirations", expirations.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        return stats;
+    }
+}
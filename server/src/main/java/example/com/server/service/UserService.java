@@ -1,9 +1,11 @@
 package example.com.server.service;
 
 import example.com.server.model.User;
+import example.com.server.repository.ConversationSummaryRepository;
 import example.com.server.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -13,6 +15,12 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ConversationSummaryRepository conversationSummaryRepository;
+
     public User createOrGetUser(String email, String login, String googleId){
         return userRepository.findByEmail(email).orElseGet(() -> {
            User u = new User();
@@ -30,6 +38,7 @@ public class UserService {
     /**
      * Update profile fields (fullName, login, email). Password is not updated here.
      */
+    @Transactional
     public User updateProfile(Long userId, String fullName, String login, String email) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
@@ -46,6 +55,20 @@ public class UserService {
         if (email != null) {
             user.setEmail(email);
         }
-        return userRepository.save(user);
+        user = userRepository.save(user);
+        // Cached products and conversation summaries carry the user's display name
+        ProductService.afterCommit(() -> productCache.invalidateSeller(userId));
+        conversationSummaryRepository.updatePartnerName(userId, displayName(user));
+        return user;
+    }
+
+    private static String displayName(User user) {
+        if (user.getFullName() != null && !user.getFullName().isBlank()) {
+            return user.getFullName();
+        }
+        if (user.getLogin() != null && !user.getLogin().isBlank()) {
+            return user.getLogin();
+        }
+        return "User " + user.getId();
     }
 }
@@ -0,0 +1,106 @@
+package example.com.server.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of tokens whose signature has already been verified, keyed by the token itself.
+ * Lookups are a plain ConcurrentHashMap read, so concurrent requests do not serialize on the cache.
+ * An entry lives until the token expires or for at most maxTtl, whichever comes first.
+ * Once maxSize tokens are cached, expired entries are swept; while the cache is still full,
+ * new tokens are verified every time instead of displacing cached ones.
+ */
+public class VerifiedTokenCache<V> {
+
+    private final int maxSize;
+    private final long maxTtlMillis;
+
+    private final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    // One thread sweeps at a time; the others skip caching meanwhile
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public VerifiedTokenCache(int maxSize, Duration maxTtl) {
+        this.maxSize = maxSize;
+        this.maxTtlMillis = maxTtl.toMillis();
+    }
+
+    private record Entry<V>(V value, long expiresAtMillis) {
+    }
+
+    public Optional<V> get(String token) {
+        Entry<V> entry = entries.get(token);
+        if (entry != null) {
+            if (entry.expiresAtMillis() > System.currentTimeMillis()) {
+                hits.increment();
+                return Optional.of(entry.value());
+            }
+            if (entries.remove(token, entry)) {
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Remember a verified token. Tokens without an expiry are kept for at most maxTtl.
+     */
+    public void put(String token, V value, Instant tokenExpiresAt) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + maxTtlMillis;
+        if (tokenExpiresAt != null) {
+            expiresAt = Math.min(expiresAt, tokenExpiresAt.toEpochMilli());
+        }
+        if (expiresAt <= now) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            sweepExpired(now);
+            if (entries.size() >= maxSize) {
+                rejected.increment();
+                return;
+            }
+        }
+        entries.put(token, new Entry<>(value, expiresAt));
+    }
+
+    private void sweepExpired(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            entries.forEach((token, entry) -> {
+                if (entry.expiresAtMillis() <= now && entries.remove(token, entry)) {
+                    evictions.increment();
+                }
+            });
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        return stats;
+    }
+}
@@ -4,6 +4,10 @@ import example.com.server.dto.MessageDTO;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 public class WebSocketNotificationService {
 
@@ -28,4 +32,20 @@ public class WebSocketNotificationService {
             messagingTemplate.convertAndSend("/topic/messages/" + senderId, message);
         }
     }
+
+    /**
+     * Notify the sender of messages that the reader has read them.
+     * One aggregated event is sent per conversation instead of one per message.
+     */
+    public void notifyConversationRead(Long readerId, Long senderId, int readCount) {
+        if (readerId == null || senderId == null || readCount <= 0) {
+            return;
+        }
+        Map<String, Object> receipt = new HashMap<>();
+        receipt.put("type", "READ_RECEIPT");
+        receipt.put("readerId", readerId);
+        receipt.put("readCount", readCount);
+        receipt.put("readAt", Instant.now());
+        messagingTemplate.convertAndSendToUser(senderId.toString(), "/queue/read-receipts", receipt);
+    }
 }
@@ -0,0 +1,106 @@
+-- Schema as it was created by Hibernate (ddl-auto=update) before migrations took over the DDL.
+-- Existing databases are baselined at this version and only get the later migrations.
+
+create table cart_items (
+    quantity integer not null,
+    created_at datetime(6) not null,
+    id bigint not null auto_increment,
+    product_id bigint not null,
+    user_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table messages (
+    is_read bit not null,
+    created_at datetime(6) not null,
+    id bigint not null auto_increment,
+    receiver_id bigint not null,
+    sender_id bigint not null,
+    content varchar(2000) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table orders (
+    created_at datetime(6) not null,
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    description varchar(1000),
+    status enum ('CANCELLED','COMPLETED','CONFIRMED','IN_PROGRESS','PENDING') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table product (
+    is_available bit not null,
+    price float(53) not null,
+    created_at datetime(6) not null,
+    id bigint not null auto_increment,
+    seller_id bigint not null,
+    description varchar(2000),
+    category varchar(255) not null,
+    image_url varchar(255),
+    name varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table rating (
+    rating_value integer not null,
+    created_at datetime(6) not null,
+    customer_id bigint not null,
+    id_rating bigint not null auto_increment,
+    producer_id bigint not null,
+    updated_at datetime(6),
+    primary key (id_rating)
+) engine=InnoDB;
+
+create table user (
+    iduser bigint not null auto_increment,
+    email varchar(255),
+    full_name varchar(255),
+    login varchar(255),
+    password varchar(255),
+    role enum ('ADMIN','CUSTOMER','PRODUCER') not null,
+    primary key (iduser)
+) engine=InnoDB;
+
+alter table rating
+   add constraint UKlvm0jwf6bdxs8jlk9gf8f8ara unique (customer_id, producer_id);
+
+alter table cart_items
+   add constraint FKl7je3auqyq1raj52qmwrgih8x
+   foreign key (product_id)
+   references product (id);
+
+alter table cart_items
+   add constraint FKkjv4yjjdlt4hd9ayey6mti09m
+   foreign key (user_id)
+   references user (iduser);
+
+alter table messages
+   add constraint FKjnjxr6fd6nmvp28gakno4np94
+   foreign key (receiver_id)
+   references user (iduser);
+
+alter table messages
+   add constraint FKip9clvpi646rirksmm433wykx
+   foreign key (sender_id)
+   references user (iduser);
+
+alter table orders
+   add constraint FKel9kyl84ego2otj2accfd8mr7
+   foreign key (user_id)
+   references user (iduser);
+
+alter table product
+   add constraint FKmsvavr0t3lra70gf2ymxdi5te
+   foreign key (seller_id)
+   references user (iduser);
+
+alter table rating
+   add constraint FKq549kekqyw73qvq1md7rdk9un
+   foreign key (customer_id)
+   references user (iduser);
+
+alter table rating
+   add constraint FK85prdfd6e5xxy8dkmqaa75w9t
+   foreign key (producer_id)
+   references user (iduser);
@@ -0,0 +1,45 @@
+-- Composite indexes for the hot queries. Every index here has a plan check in QueryPlanTest.
+
+-- Conversation pages, one direction at a time: sender_id = ? AND receiver_id = ? ORDER BY created_at, id.
+-- The foreign key on sender_id keeps its own single-column index; nothing here drops it.
+create index idx_messages_sender_receiver_created
+    on messages (sender_id, receiver_id, created_at, id);
+
+-- Unread counters and "mark conversation read": receiver_id = ? AND is_read = false [AND sender_id = ?].
+-- Covers the COUNT queries without touching the rows.
+create index idx_messages_receiver_read_sender
+    on messages (receiver_id, is_read, sender_id);
+
+-- Product feed, newest first: unfiltered, available only, by category, by seller.
+create index idx_product_created
+    on product (created_at, id);
+
+create index idx_product_available_created
+    on product (is_available, created_at, id);
+
+create index idx_product_category_available_created
+    on product (category, is_available, created_at, id);
+
+create index idx_product_seller_created
+    on product (seller_id, created_at, id);
+
+-- Cart lookups by user and by (user, product).
+create index idx_cart_items_user_product
+    on cart_items (user_id, product_id);
+
+-- Order search: by user, by status, by creation range, newest first.
+create index idx_orders_user_created
+    on orders (user_id, created_at);
+
+create index idx_orders_status_created
+    on orders (status, created_at);
+
+create index idx_orders_created
+    on orders (created_at);
+
+-- Sign-in lookups.
+create index idx_user_login
+    on user (login);
+
+create index idx_user_email
+    on user (email);
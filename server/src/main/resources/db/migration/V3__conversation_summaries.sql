@@ -0,0 +1,54 @@
+-- Per-user conversation summaries (one row per owner and partner), kept up to date by MessageService.
+
+create table conversation_summaries (
+    last_message_from_me bit not null,
+    id bigint not null auto_increment,
+    last_message_at datetime(6) not null,
+    owner_id bigint not null,
+    partner_id bigint not null,
+    unread_count bigint not null,
+    last_message varchar(2000) not null,
+    partner_name varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_conversation_summaries_owner_last
+   on conversation_summaries (owner_id, last_message_at);
+
+alter table conversation_summaries
+   add constraint UKa6tt8eqtgh180e6g1hnomjdjf unique (owner_id, partner_id);
+
+alter table conversation_summaries
+   add constraint FKofkmodqrnmyhxffctwjbtck49
+   foreign key (owner_id)
+   references user (iduser);
+
+alter table conversation_summaries
+   add constraint FKqtxyyi0363u97x583q3tgnoxd
+   foreign key (partner_id)
+   references user (iduser);
+
+-- Summaries of the existing history: both participants see the newest message (highest id),
+-- the receiver also counts the messages it has not read yet.
+insert into conversation_summaries
+    (owner_id, partner_id, partner_name, last_message, last_message_at, last_message_from_me, unread_count)
+select c.owner_id,
+       c.partner_id,
+       coalesce(nullif(trim(p.full_name), ''), nullif(trim(p.login), ''), concat('User ', p.iduser)),
+       m.content,
+       m.created_at,
+       m.sender_id = c.owner_id,
+       c.unread_count
+from (
+    select owner_id, partner_id, max(message_id) as last_message_id, sum(unread) as unread_count
+    from (
+        select sender_id as owner_id, receiver_id as partner_id, id as message_id, 0 as unread
+        from messages
+        union all
+        select receiver_id, sender_id, id, case when is_read then 0 else 1 end
+        from messages
+    ) participants
+    group by owner_id, partner_id
+) c
+join messages m on m.id = c.last_message_id
+join user p on p.iduser = c.partner_id;
@@ -0,0 +1,27 @@
+-- Running rating aggregates per producer, kept up to date by RatingService.
+
+create table producer_rating_stats (
+    five_stars bigint not null,
+    four_stars bigint not null,
+    one_star bigint not null,
+    producer_id bigint not null,
+    rating_count bigint not null,
+    rating_sum bigint not null,
+    three_stars bigint not null,
+    two_stars bigint not null,
+    primary key (producer_id)
+) engine=InnoDB;
+
+-- Aggregates of the existing ratings.
+insert into producer_rating_stats
+    (producer_id, rating_sum, rating_count, one_star, two_stars, three_stars, four_stars, five_stars)
+select producer_id,
+       sum(rating_value),
+       count(*),
+       sum(case when rating_value = 1 then 1 else 0 end),
+       sum(case when rating_value = 2 then 1 else 0 end),
+       sum(case when rating_value = 3 then 1 else 0 end),
+       sum(case when rating_value = 4 then 1 else 0 end),
+       sum(case when rating_value = 5 then 1 else 0 end)
+from rating
+group by producer_id;
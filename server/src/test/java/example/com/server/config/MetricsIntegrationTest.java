@@ -0,0 +1,67 @@
+package example.com.server.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@ActiveProfiles("h2")
+class MetricsIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private HttpResponse<String> get(int port, String path) throws Exception {
+        return httpClient.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void prometheusEndpointExportsServerMetrics() throws Exception {
+        assertEquals(200, get(port, "/api/products").statusCode());
+
+        HttpResponse<String> response = get(managementPort, "/actuator/prometheus");
+        assertEquals(200, response.statusCode());
+        String body = response.body();
+        assertTrue(body.contains("http_server_requests_seconds_bucket{"), "HTTP latency histogram");
+        assertTrue(body.contains("uri=\"/api/products\""), "HTTP metrics by route");
+        assertTrue(body.contains("spring_data_repository_invocations_seconds"), "repository timers");
+        assertTrue(body.contains("hikaricp_connections_acquire_seconds"), "connection pool wait");
+        assertTrue(body.contains("hibernate_statements_total"), "Hibernate statistics");
+        assertTrue(body.contains("cache_gets_total{cache=\"productCache\",result=\"hit\"}"), "cache meters");
+        assertTrue(body.contains("auth_hashing_queued"), "password hashing pool");
+        assertTrue(body.contains("auth_hashing_duration_seconds_bucket{"), "password hashing latency");
+        assertTrue(body.contains("auth_hashing_queue_wait_seconds_bucket{"), "password hashing queue wait");
+        assertTrue(body.contains("stomp_users"), "STOMP broker");
+    }
+
+    @Test
+    void statsEndpointIsServedOnTheManagementPort() throws Exception {
+        HttpResponse<String> response = get(managementPort, "/actuator/stats");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"productCache\""), "cache statistics");
+        assertTrue(response.body().contains("\"sqlQueries\""), "SQL budget statistics");
+    }
+
+    @Test
+    void apiPortDoesNotExposeActuator() throws Exception {
+        assertEquals(404, get(port, "/actuator/prometheus").statusCode());
+        assertEquals(404, get(port, "/actuator/stats").statusCode());
+        assertEquals(404, get(port, "/api/stats").statusCode());
+    }
+}
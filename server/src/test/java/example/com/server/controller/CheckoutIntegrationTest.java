@@ -0,0 +1,151 @@
+package example.com.server.controller;
+
+import example.com.server.model.Product;
+import example.com.server.model.User;
+import example.com.server.monitoring.TestUsers;
+import example.com.server.repository.ProductRepository;
+import example.com.server.repository.UserRepository;
+import example.com.server.service.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+@AutoConfigureMockMvc
+class CheckoutIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User seller;
+
+    @BeforeEach
+    void createSeller() {
+        seller = TestUsers.create(userRepository, User.Role.PRODUCER);
+    }
+
+    private Product createProduct(String name, double price) {
+        return productRepository.save(new Product(name, null, price, null, seller, "Checkout"));
+    }
+
+    private String auth(User user) {
+        return "Bearer " + jwtService.generateToken(user);
+    }
+
+    private void addToCart(User buyer, Product product) throws Exception {
+        mockMvc.perform(post("/api/products/{id}/cart", product.getId())
+                        .header("Authorization", auth(buyer))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":1}"))
+                .andExpect(status().is2xxSuccessful());
+    }
+
+    private int buy(User buyer, Product product) throws Exception {
+        return mockMvc.perform(post("/api/products/{id}/buy", product.getId())
+                        .header("Authorization", auth(buyer)))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Test
+    void checkoutBuysAvailableItemsAndReportsTheRest() throws Exception {
+        User buyer = TestUsers.create(userRepository, User.Role.CUSTOMER);
+        Product bowl = createProduct("Checkout bowl", 20.0);
+        Product spoon = createProduct("Checkout spoon", 5.0);
+        Product vase = createProduct("Checkout vase", 40.0);
+        addToCart(buyer, bowl);
+        addToCart(buyer, spoon);
+        addToCart(buyer, vase);
+
+        // Someone else buys the vase first
+        assertEquals(200, buy(TestUsers.create(userRepository, User.Role.CUSTOMER), vase));
+
+        mockMvc.perform(post("/api/cart/checkout").header("Authorization", auth(buyer)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderIds", hasSize(2)))
+                .andExpect(jsonPath("$.totalPrice").value(25.0))
+                .andExpect(jsonPath("$.failedItems", hasSize(1)))
+                .andExpect(jsonPath("$.failedItems[0].productId").value(vase.getId()))
+                .andExpect(jsonPath("$.message").value("Checkout partially successful"));
+
+        // The unavailable item stays in the cart, the bought ones are gone from the cart and the catalogue
+        mockMvc.perform(get("/api/cart/count").header("Authorization", auth(buyer)))
+                .andExpect(jsonPath("$.count").value(1));
+        mockMvc.perform(get("/api/products/{id}", bowl.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isAvailable").value(false));
+
+        mockMvc.perform(post("/api/cart/checkout").header("Authorization", auth(buyer)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void concurrentBuyersOfOneProductGetOneOrder() throws Exception {
+        Product product = createProduct("Contested lamp", 30.0);
+        // Cached as available, so both buyers get past the availability check to the reservation
+        mockMvc.perform(get("/api/products/{id}", product.getId()))
+                .andExpect(jsonPath("$.isAvailable").value(true));
+
+        int buyers = 2;
+        ExecutorService executor = Executors.newFixedThreadPool(buyers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < buyers; i++) {
+                User buyer = TestUsers.create(userRepository, User.Role.CUSTOMER);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return buy(buyer, product);
+                }));
+            }
+            start.countDown();
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<Integer> result : results) {
+                statuses.add(result.get(10, TimeUnit.SECONDS));
+            }
+            statuses.sort(null);
+            assertEquals(List.of(200, 409), statuses);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        mockMvc.perform(get("/api/products/{id}", product.getId()))
+                .andExpect(jsonPath("$.isAvailable").value(false));
+        assertEquals(409, buy(TestUsers.create(userRepository, User.Role.CUSTOMER), product));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE description LIKE ?",
+                Integer.class, "%(ID: " + product.getId() + ")"));
+    }
+}
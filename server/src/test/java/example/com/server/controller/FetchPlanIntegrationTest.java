@@ -0,0 +1,152 @@
+package example.com.server.controller;
+
+import example.com.server.model.Order;
+import example.com.server.model.Product;
+import example.com.server.model.Rating;
+import example.com.server.model.User;
+import example.com.server.monitoring.QueryBudgetFilter;
+import example.com.server.monitoring.TestUsers;
+import example.com.server.repository.OrderRepository;
+import example.com.server.repository.ProductRepository;
+import example.com.server.repository.RatingRepository;
+import example.com.server.repository.UserRepository;
+import example.com.server.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Open-session-in-view is off, so every association a response shows has to be fetched by the endpoint's
+ * own query. These requests would fail with a LazyInitializationException otherwise, and the statement
+ * counts pin that the associations come with the main query instead of one query per row.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+@AutoConfigureMockMvc
+class FetchPlanIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void orderListLoadsBuyersWithOneQuery() throws Exception {
+        User buyer = TestUsers.create(userRepository, User.Role.CUSTOMER);
+        for (int i = 0; i < 3; i++) {
+            orderRepository.save(new Order(buyer, "Order " + i, Order.Status.PENDING));
+        }
+
+        mockMvc.perform(get("/api/orders").param("userId", buyer.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(3)))
+                .andExpect(jsonPath("$.content[0].userId").value(buyer.getId()))
+                .andExpect(jsonPath("$.content[0].user.login").value(buyer.getLogin()))
+                .andExpect(jsonPath("$.content[0].user.password").doesNotExist())
+                .andExpect(request().attribute(QueryBudgetFilter.STATEMENTS_ATTRIBUTE, 1));
+    }
+
+    @Test
+    void orderStatusUpdateReturnsBuyer() throws Exception {
+        User buyer = TestUsers.create(userRepository, User.Role.CUSTOMER);
+        Order order = orderRepository.save(new Order(buyer, "To confirm", Order.Status.PENDING));
+
+        mockMvc.perform(patch("/api/orders/{id}/status", order.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"confirmed\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CONFIRMED"))
+                .andExpect(jsonPath("$.user.fullName").value(buyer.getFullName()));
+
+        mockMvc.perform(get("/api/orders/{id}", order.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.login").value(buyer.getLogin()))
+                .andExpect(request().attribute(QueryBudgetFilter.STATEMENTS_ATTRIBUTE, 1));
+    }
+
+    @Test
+    void productListLoadsSellersInTheSameQuery() throws Exception {
+        User seller = TestUsers.create(userRepository, User.Role.PRODUCER);
+        for (int i = 0; i < 3; i++) {
+            productRepository.save(new Product("Fetch product " + i, null, 10.0 + i, null, seller, "Fetch"));
+        }
+
+        // The first page is not full, so Spring Data skips the count query
+        mockMvc.perform(get("/api/products").param("sellerId", seller.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(3)))
+                .andExpect(jsonPath("$.content[0].sellerName").value(seller.getFullName()))
+                .andExpect(jsonPath("$.content[0].seller").doesNotExist())
+                .andExpect(jsonPath("$.content[0].isAvailable").value(true))
+                .andExpect(jsonPath("$.content[0].category").value("Fetch"))
+                .andExpect(request().attribute(QueryBudgetFilter.STATEMENTS_ATTRIBUTE, 1));
+
+        mockMvc.perform(get("/api/products").param("sellerId", seller.getId().toString()).param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(3)))
+                .andExpect(jsonPath("$.content[2].sellerId").value(seller.getId()))
+                .andExpect(request().attribute(QueryBudgetFilter.STATEMENTS_ATTRIBUTE, 1));
+    }
+
+    @Test
+    void searchResultsKeepRankedOrderAndSellerName() throws Exception {
+        User seller = TestUsers.create(userRepository, User.Role.PRODUCER);
+        seller.setFullName(null);
+        userRepository.save(seller);
+        productService.createProduct(seller.getId(), "Walnut bowl", "Carved walnut", 30.0, "Wood", null);
+        productService.createProduct(seller.getId(), "Walnut walnut spoon", null, 12.0, "Wood", null);
+
+        mockMvc.perform(get("/api/products").param("search", "walnut").param("sellerId", seller.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.content[*].sellerName").value(everyItem(is(seller.getLogin()))))
+                .andExpect(request().attribute(QueryBudgetFilter.STATEMENTS_ATTRIBUTE, 1));
+    }
+
+    @Test
+    void ratingLoadsCustomerAndProducerWithOneQuery() throws Exception {
+        User customer = TestUsers.create(userRepository, User.Role.CUSTOMER);
+        User producer = TestUsers.create(userRepository, User.Role.PRODUCER);
+        ratingRepository.save(new Rating(customer, producer, 4));
+
+        mockMvc.perform(get("/api/ratings/customer/{customerId}/producer/{producerId}",
+                        customer.getId(), producer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ratingValue").value(4))
+                .andExpect(jsonPath("$.customerName").value(customer.getFullName()))
+                .andExpect(jsonPath("$.producerName").value(producer.getFullName()))
+                .andExpect(request().attribute(QueryBudgetFilter.STATEMENTS_ATTRIBUTE, 1));
+
+        mockMvc.perform(get("/api/ratings/customer/{customerId}/producer/{producerId}",
+                        producer.getId(), customer.getId()))
+                .andExpect(status().isNotFound());
+    }
+}
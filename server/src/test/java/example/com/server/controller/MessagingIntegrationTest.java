@@ -0,0 +1,224 @@
+package example.com.server.controller;
+
+import example.com.server.model.User;
+import example.com.server.monitoring.QueryBudgetFilter;
+import example.com.server.monitoring.TestUsers;
+import example.com.server.repository.UserRepository;
+import example.com.server.service.JwtService;
+import example.com.server.service.MessageService;
+import example.com.server.service.WebSocketNotificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+@AutoConfigureMockMvc
+class MessagingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @MockitoSpyBean
+    private WebSocketNotificationService notificationService;
+
+    private User anna;
+    private User bob;
+
+    @BeforeEach
+    void createUsers() {
+        anna = TestUsers.create(userRepository, "Anna", User.Role.CUSTOMER);
+        bob = TestUsers.create(userRepository, null, User.Role.CUSTOMER);
+    }
+
+    private String auth(User user) {
+        return "Bearer " + jwtService.generateToken(user);
+    }
+
+    private void send(User from, User to, String content) throws Exception {
+        mockMvc.perform(post("/api/messages/send")
+                        .header("Authorization", auth(from))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"receiverId\":" + to.getId() + ",\"content\":\"" + content + "\"}"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void summariesFollowTheLastMessageAndUnreadCount() throws Exception {
+        send(anna, bob, "hi");
+        send(anna, bob, "are you there?");
+        send(bob, anna, "yes");
+
+        mockMvc.perform(get("/api/messages/conversations").header("Authorization", auth(bob)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.conversations", hasSize(1)))
+                .andExpect(jsonPath("$.conversations[0].otherUserId").value(anna.getId()))
+                .andExpect(jsonPath("$.conversations[0].otherUserName").value("Anna"))
+                .andExpect(jsonPath("$.conversations[0].lastMessage").value("yes"))
+                .andExpect(jsonPath("$.conversations[0].isLastMessageFromMe").value(true))
+                .andExpect(jsonPath("$.conversations[0].unreadCount").value(2));
+
+        mockMvc.perform(get("/api/messages/conversations").header("Authorization", auth(anna)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.conversations[0].otherUserName").value(bob.getLogin()))
+                .andExpect(jsonPath("$.conversations[0].isLastMessageFromMe").value(false))
+                .andExpect(jsonPath("$.conversations[0].unreadCount").value(1));
+
+        mockMvc.perform(get("/api/messages/unread/count").header("Authorization", auth(bob)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unreadCount").value(2));
+        mockMvc.perform(get("/api/messages/unread/count").header("Authorization", auth(anna)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unreadCount").value(1));
+    }
+
+    @Test
+    void conversationPagesWalkBackThroughBothDirections() throws Exception {
+        List<String> sent = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String content = "message " + i;
+            send(i % 2 == 0 ? anna : bob, i % 2 == 0 ? bob : anna, content);
+            sent.add(content);
+        }
+        // An unrelated conversation must not leak into the pages
+        send(anna, TestUsers.create(userRepository, "Other", User.Role.CUSTOMER), "elsewhere");
+
+        List<String> seen = new ArrayList<>();
+        String before = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/messages/conversation/{otherUserId}", bob.getId())
+                    .header("Authorization", auth(anna))
+                    .param("limit", "2");
+            if (before != null) {
+                request.param("before", before);
+            }
+            String body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = jsonMapper.readTree(body);
+            List<String> contents = new ArrayList<>();
+            page.get("messages").forEach(message -> contents.add(message.get("content").asString()));
+            seen.addAll(0, contents);
+            assertEquals(page.get("hasMore").asBoolean(), !page.get("nextBefore").isNull());
+            before = page.get("nextBefore").isNull() ? null : page.get("nextBefore").asString();
+        } while (before != null);
+
+        assertEquals(sent, seen);
+
+        mockMvc.perform(get("/api/messages/conversation/{otherUserId}", anna.getId())
+                        .header("Authorization", auth(bob))
+                        .param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.messages", hasSize(3)))
+                .andExpect(jsonPath("$.messages[0].content").value("message 2"))
+                .andExpect(jsonPath("$.messages[2].content").value("message 4"))
+                .andExpect(jsonPath("$.messages[2].senderName").value("Anna"))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                // The two participants, then the page itself
+                .andExpect(request().attribute(QueryBudgetFilter.STATEMENTS_ATTRIBUTE, 2));
+    }
+
+    @Test
+    void markingConversationReadUpdatesCountsAndSendsOneReceipt() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            send(anna, bob, "unread " + i);
+        }
+        send(TestUsers.create(userRepository, "Other", User.Role.CUSTOMER), bob, "from someone else");
+
+        mockMvc.perform(post("/api/messages/conversation/{otherUserId}/read", anna.getId())
+                        .header("Authorization", auth(bob)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.markedCount").value(3));
+        verify(notificationService, times(1)).notifyConversationRead(bob.getId(), anna.getId(), 3);
+
+        mockMvc.perform(get("/api/messages/unread/count").header("Authorization", auth(bob)))
+                .andExpect(jsonPath("$.unreadCount").value(1));
+        mockMvc.perform(get("/api/messages/unread/count/{otherUserId}", anna.getId())
+                        .header("Authorization", auth(bob)))
+                .andExpect(jsonPath("$.unreadCount").value(0));
+        mockMvc.perform(get("/api/messages/conversations").header("Authorization", auth(bob)))
+                .andExpect(jsonPath("$.conversations[?(@.otherUserId == " + anna.getId() + ")].unreadCount")
+                        .value(0));
+
+        // Nothing left to mark: no second receipt
+        mockMvc.perform(post("/api/messages/conversation/{otherUserId}/read", anna.getId())
+                        .header("Authorization", auth(bob)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.markedCount").value(0));
+        verify(notificationService, times(1)).notifyConversationRead(eq(bob.getId()), eq(anna.getId()), anyInt());
+    }
+
+    @Test
+    void concurrentFirstMessagesShareOneSummaryPerOwner() throws Exception {
+        int senders = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(senders);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < senders; i++) {
+                User from = i % 2 == 0 ? anna : bob;
+                User to = i % 2 == 0 ? bob : anna;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return messageService.sendMessage(from.getId(), to.getId(), "first");
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        mockMvc.perform(get("/api/messages/conversations").header("Authorization", auth(anna)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.conversations", hasSize(1)))
+                .andExpect(jsonPath("$.conversations[0].unreadCount").value(2));
+        mockMvc.perform(get("/api/messages/conversations").header("Authorization", auth(bob)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.conversations", hasSize(1)))
+                .andExpect(jsonPath("$.conversations[0].unreadCount").value(2));
+    }
+}
@@ -0,0 +1,239 @@
+package example.com.server.controller;
+
+import example.com.server.model.Order;
+import example.com.server.model.User;
+import example.com.server.monitoring.TestUsers;
+import example.com.server.repository.OrderRepository;
+import example.com.server.repository.UserRepository;
+import example.com.server.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+@AutoConfigureMockMvc
+class OrderPaginationIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @MockitoSpyBean
+    private OrderService orderService;
+
+    private User buyer;
+
+    // Newest first
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void createOrders() {
+        buyer = TestUsers.create(userRepository, User.Role.CUSTOMER);
+        for (int i = 0; i < 5; i++) {
+            Order.Status status = i % 2 == 0 ? Order.Status.PENDING : Order.Status.COMPLETED;
+            orderIds.add(0, orderRepository.save(new Order(buyer, "Order " + i, status)).getId());
+        }
+    }
+
+    private JsonNode json(String body) {
+        return jsonMapper.readTree(body);
+    }
+
+    @Test
+    void listsAreLimitedToTheRequestedPage() throws Exception {
+        mockMvc.perform(get("/api/orders/user/{userId}", buyer.getId()).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].id").value(orderIds.get(0)))
+                .andExpect(jsonPath("$.content[1].id").value(orderIds.get(1)))
+                .andExpect(jsonPath("$.page").value(0))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").isString());
+
+        mockMvc.perform(get("/api/orders/user/{userId}", buyer.getId()).param("size", "2").param("page", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id").value(orderIds.get(4)))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+
+        // A custom sort has no keyset to continue from: the next page is requested by number
+        mockMvc.perform(get("/api/orders").param("userId", buyer.getId().toString())
+                        .param("sort", "id,asc").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(3)))
+                .andExpect(jsonPath("$.content[0].id").value(orderIds.get(4)))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+    }
+
+    @Test
+    void legacyListContinuesWithTheReturnedCursor() throws Exception {
+        // Called without page, size or cursor like the existing clients; following nextCursor reaches every order
+        String body = mockMvc.perform(get("/api/orders/user/{userId}", buyer.getId()).param("size", "3"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<Long> seen = new ArrayList<>();
+        JsonNode page = json(body);
+        page.get("content").forEach(order -> seen.add(order.get("id").asLong()));
+
+        body = mockMvc.perform(get("/api/orders/user/{userId}", buyer.getId())
+                        .param("size", "3").param("cursor", page.get("nextCursor").asString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andReturn().getResponse().getContentAsString();
+        json(body).get("content").forEach(order -> seen.add(order.get("id").asLong()));
+        assertEquals(orderIds, seen);
+    }
+
+    @Test
+    void cursorPagesCoverEveryOrderOnce() throws Exception {
+        List<Long> seen = new ArrayList<>();
+        String cursor = "";
+        while (cursor != null) {
+            String body = mockMvc.perform(get("/api/orders").param("userId", buyer.getId().toString())
+                            .param("size", "2").param("cursor", cursor))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = json(body);
+            page.get("content").forEach(order -> seen.add(order.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asString();
+        }
+        assertEquals(orderIds, seen);
+
+        mockMvc.perform(get("/api/orders/status/{status}", Order.Status.COMPLETED).param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].status").value("COMPLETED"));
+    }
+
+    @Test
+    void invalidPagingIsRejected() throws Exception {
+        mockMvc.perform(get("/api/orders").param("cursor", "").param("sort", "status,asc"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/orders").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/orders").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/orders").param("page", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportStreamsOneOrderPerLine() throws Exception {
+        String body = mockMvc.perform(get("/api/orders/export").param("userId", buyer.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<Long> exported = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            JsonNode order = json(line);
+            assertEquals(buyer.getLogin(), order.get("user").get("login").asString());
+            exported.add(order.get("id").asLong());
+        }
+        assertEquals(orderIds, exported);
+
+        String pending = mockMvc.perform(get("/api/orders/export")
+                        .param("userId", buyer.getId().toString()).param("status", "PENDING"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(3, pending.lines().count());
+    }
+
+    @Test
+    void searchMatchesWildcardCharactersLiterally() throws Exception {
+        Long discounted = orderRepository.save(new Order(buyer, "Order 50%_off", Order.Status.PENDING)).getId();
+
+        for (String search : List.of("%", "_", "50%_")) {
+            mockMvc.perform(get("/api/orders").param("userId", buyer.getId().toString()).param("search", search))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content", hasSize(1)))
+                    .andExpect(jsonPath("$.content[0].id").value(discounted));
+            mockMvc.perform(get("/api/orders").param("userId", buyer.getId().toString())
+                            .param("search", search).param("cursor", ""))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content", hasSize(1)));
+            String exported = mockMvc.perform(get("/api/orders/export")
+                            .param("userId", buyer.getId().toString()).param("search", search))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            assertEquals(List.of(discounted), exported.lines().map(line -> json(line).get("id").asLong()).toList());
+        }
+        mockMvc.perform(get("/api/orders").param("userId", buyer.getId().toString()).param("search", "\\"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(0)));
+    }
+
+    @Test
+    void exportsOverTheLimitAreTurnedAway() throws Exception {
+        // Both allowed exports are held open until the third one has been answered
+        CountDownLatch running = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            running.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(orderService).exportOrders(any(), any());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Integer>> exports = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                exports.add(executor.submit(() -> mockMvc.perform(get("/api/orders/export")
+                                .param("userId", buyer.getId().toString()))
+                        .andReturn().getResponse().getStatus()));
+            }
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+
+            mockMvc.perform(get("/api/orders/export").param("userId", buyer.getId().toString()))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(jsonPath("$.error").exists());
+
+            release.countDown();
+            for (Future<Integer> export : exports) {
+                assertEquals(200, export.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        mockMvc.perform(get("/api/orders/export").param("userId", buyer.getId().toString()))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,185 @@
+package example.com.server.controller;
+
+import example.com.server.model.Product;
+import example.com.server.model.User;
+import example.com.server.monitoring.TestUsers;
+import example.com.server.repository.ProductRepository;
+import example.com.server.repository.UserRepository;
+import example.com.server.service.ProductSearchIndex;
+import example.com.server.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.server.context.WebServerInitializedEvent;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.ApplicationListener;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@ActiveProfiles("h2")
+@AutoConfigureMockMvc
+class ProductListIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private IndexStateAtStartup indexStateAtStartup;
+
+    private User seller;
+
+    @BeforeEach
+    void createSeller() {
+        seller = TestUsers.create(userRepository, User.Role.PRODUCER);
+    }
+
+    private Product createProduct(String name, String description) {
+        return productRepository.save(new Product(name, description, 10.0, null, seller, "Textiles"));
+    }
+
+    @Test
+    void searchMatchesWildcardCharactersLiterally() throws Exception {
+        Product underscore = createProduct("Scarf_01", null);
+        Product percent = createProduct("Wool scarf", "100% merino");
+        Product backslash = createProduct("Rug", "Pattern A\\B");
+        createProduct("Plain scarf", "Cotton");
+
+        // Terms without letters or digits are not in the search index and go to LIKE
+        mockMvc.perform(get("/api/products").param("sellerId", seller.getId().toString()).param("search", "_"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id").value(underscore.getId()));
+        mockMvc.perform(get("/api/products").param("sellerId", seller.getId().toString()).param("search", "%"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id").value(percent.getId()));
+        mockMvc.perform(get("/api/products").param("sellerId", seller.getId().toString()).param("search", "\\"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id").value(backslash.getId()));
+        mockMvc.perform(get("/api/products").param("sellerId", seller.getId().toString())
+                        .param("search", "%").param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id").value(percent.getId()));
+    }
+
+    @Test
+    void cursorPagesCoverProductsWithEqualCreationTimesOnce() throws Exception {
+        Instant sameTime = Instant.now().minus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.SECONDS);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Product product = new Product("Tied " + i, null, 10.0, null, seller, "Textiles");
+            product.setCreatedAt(sameTime);
+            products.add(productRepository.save(product));
+        }
+        Product older = new Product("Older", null, 10.0, null, seller, "Textiles");
+        older.setCreatedAt(sameTime.minusSeconds(60));
+        products.add(productRepository.save(older));
+        Product newer = new Product("Newer", null, 10.0, null, seller, "Textiles");
+        newer.setCreatedAt(sameTime.plusSeconds(60));
+        products.add(productRepository.save(newer));
+        // Newest first; equal creation times by descending id
+        List<Long> expected = products.stream()
+                .sorted(Comparator.comparing(Product::getCreatedAt).thenComparing(Product::getId).reversed())
+                .map(Product::getId)
+                .toList();
+
+        List<Long> seen = new ArrayList<>();
+        String body = mockMvc.perform(get("/api/products").param("sellerId", seller.getId().toString())
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode page = jsonMapper.readTree(body);
+        page.get("content").forEach(product -> seen.add(product.get("id").asLong()));
+        // Listed after the first page was read: it is newer than the cursor and must not show up
+        createProduct("Listed meanwhile", null);
+        while (!page.get("nextCursor").isNull()) {
+            body = mockMvc.perform(get("/api/products").param("sellerId", seller.getId().toString())
+                            .param("size", "2").param("cursor", page.get("nextCursor").asString()))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            page = jsonMapper.readTree(body);
+            page.get("content").forEach(product -> seen.add(product.get("id").asLong()));
+        }
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void malformedCursorIsRejected() throws Exception {
+        for (String raw : List.of("1:2", "1:0:1:2", "x:0:1", "1:0:x")) {
+            String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+            mockMvc.perform(get("/api/products").param("cursor", cursor))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error").value("Invalid cursor"));
+        }
+        mockMvc.perform(get("/api/products").param("cursor", "not a cursor!"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid cursor"));
+    }
+
+    @Test
+    void searchIndexIsBuiltBeforeTheWebServerStarts() {
+        assertEquals(Boolean.TRUE, indexStateAtStartup.ready);
+    }
+
+    @Test
+    void indexedSearchCountsOnlyProductsThatStillExist() throws Exception {
+        productService.createProduct(seller.getId(), "Linen towel", null, 8.0, "Textiles", null);
+        productService.createProduct(seller.getId(), "Linen apron", null, 12.0, "Textiles", null);
+        // Newest, so it ranks first among equal scores; deleted behind the index's back, e.g. by another node
+        Product gone = productService.createProduct(seller.getId(), "Linen napkin", null, 4.0, "Textiles", null);
+        productRepository.deleteById(gone.getId());
+
+        mockMvc.perform(get("/api/products").param("sellerId", seller.getId().toString())
+                        .param("search", "linen").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.totalElements").value(2));
+    }
+
+    @TestConfiguration
+    static class IndexStateAtStartup implements ApplicationListener<WebServerInitializedEvent> {
+
+        @Autowired
+        private ProductSearchIndex searchIndex;
+
+        private volatile Boolean ready;
+
+        @Override
+        public void onApplicationEvent(WebServerInitializedEvent event) {
+            ready = searchIndex.isReady();
+        }
+    }
+}
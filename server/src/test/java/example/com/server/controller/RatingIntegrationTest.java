@@ -0,0 +1,135 @@
+package example.com.server.controller;
+
+import example.com.server.dto.RatingRequestDTO;
+import example.com.server.model.User;
+import example.com.server.monitoring.TestUsers;
+import example.com.server.repository.RatingRepository;
+import example.com.server.repository.UserRepository;
+import example.com.server.service.RatingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The producer statistics are kept as running sums; after any mix of new, changed and deleted ratings
+ * they must still agree with AVG and COUNT over the rating table.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+@AutoConfigureMockMvc
+class RatingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private RatingService ratingService;
+
+    private User producer;
+
+    @BeforeEach
+    void createProducer() {
+        producer = TestUsers.create(userRepository, User.Role.PRODUCER);
+    }
+
+    private void rate(User customer, int value) throws Exception {
+        mockMvc.perform(post("/api/ratings")
+                        .header("customerId", customer.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"producerId\":" + producer.getId() + ",\"ratingValue\":" + value + "}"))
+                .andExpect(status().isOk());
+    }
+
+    private void assertStatsMatchRatingTable() throws Exception {
+        long count = ratingRepository.countByProducerId(producer.getId());
+        Double average = ratingRepository.calculateAverageRating(producer.getId());
+        mockMvc.perform(get("/api/ratings/producer/{producerId}/stats", producer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRatings").value(count))
+                .andExpect(jsonPath("$.averageRating").value(closeTo(average == null ? 0.0 : average, 1e-9)));
+    }
+
+    @Test
+    void statsFollowCreatedChangedAndDeletedRatings() throws Exception {
+        User first = TestUsers.create(userRepository, User.Role.CUSTOMER);
+        User second = TestUsers.create(userRepository, User.Role.CUSTOMER);
+        User third = TestUsers.create(userRepository, User.Role.CUSTOMER);
+
+        rate(first, 5);
+        rate(second, 4);
+        rate(third, 1);
+        assertStatsMatchRatingTable();
+
+        rate(third, 3);
+        rate(second, 4);
+        assertStatsMatchRatingTable();
+
+        mockMvc.perform(delete("/api/ratings/customer/{customerId}/producer/{producerId}",
+                        first.getId(), producer.getId()))
+                .andExpect(status().isNoContent());
+        assertStatsMatchRatingTable();
+        mockMvc.perform(get("/api/ratings/producer/{producerId}/stats", producer.getId()))
+                .andExpect(jsonPath("$.fiveStars").value(0))
+                .andExpect(jsonPath("$.fourStars").value(1))
+                .andExpect(jsonPath("$.threeStars").value(1))
+                .andExpect(jsonPath("$.oneStar").value(0));
+    }
+
+    @Test
+    void concurrentChangesOfOneRatingKeepStatsExact() throws Exception {
+        User customer = TestUsers.create(userRepository, User.Role.CUSTOMER);
+        rate(customer, 1);
+
+        int writers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < writers; i++) {
+                int value = 2 + i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < 5; round++) {
+                        ratingService.createOrUpdateRating(customer.getId(),
+                                new RatingRequestDTO(producer.getId(), value));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertStatsMatchRatingTable();
+    }
+}
@@ -0,0 +1,161 @@
+package example.com.server.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import example.com.server.model.Product;
+import example.com.server.model.User;
+import example.com.server.repository.ProductRepository;
+import example.com.server.repository.UserRepository;
+import example.com.server.service.MessageService;
+import example.com.server.service.ProductService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two H2 databases stand in for the primary and a replica. Nothing replicates between them, so a user
+ * inserted only into the replica shows where a read was served from.
+ */
+@SpringBootTest(properties = {
+        "datasource.routing.replicas[0].url=" + ReadReplicaRoutingIntegrationTest.REPLICA_URL,
+        "datasource.routing.health-check-interval=PT1H",
+        "datasource.routing.read-your-writes-window=PT0.5S"
+})
+@ActiveProfiles("h2")
+class ReadReplicaRoutingIntegrationTest {
+
+    static final String REPLICA_URL =
+            "jdbc:h2:mem:replica-routing;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1";
+
+    private static final String REPLICA_ONLY_LOGIN = "replica-only";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ReplicaPool replicaPool;
+
+    @BeforeAll
+    static void createReplica() {
+        DriverManagerDataSource replica = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+        Flyway.configure().dataSource(replica).load().migrate();
+        new JdbcTemplate(replica).update("INSERT INTO user (login, role) VALUES (?, 'CUSTOMER')", REPLICA_ONLY_LOGIN);
+    }
+
+    @AfterEach
+    void clearUser() {
+        ReadYourWritesTracker.clearCurrentUser();
+    }
+
+    private <T> T inTransaction(boolean readOnly, Supplier<T> work) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> work.get());
+    }
+
+    private boolean readsFromReplica() {
+        Optional<User> user = inTransaction(true, () -> userRepository.findByLogin(REPLICA_ONLY_LOGIN));
+        return user.isPresent();
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplica() {
+        assertTrue(readsFromReplica());
+        assertFalse(inTransaction(false, () -> userRepository.findByLogin(REPLICA_ONLY_LOGIN)).isPresent());
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        User saved = inTransaction(false, () -> userRepository.save(
+                new User(null, "Primary", "primary-write", "primary-write@example.com", null, User.Role.CUSTOMER)));
+
+        assertTrue(inTransaction(false, () -> userRepository.findById(saved.getId())).isPresent());
+        assertFalse(inTransaction(true, () -> userRepository.findById(saved.getId())).isPresent());
+    }
+
+    @Test
+    void userReadsOwnWritesFromPrimaryWithinWindow() throws InterruptedException {
+        ReadYourWritesTracker.setCurrentUser(42L);
+        inTransaction(false, () -> userRepository.save(
+                new User(null, "Writer", "writer", "writer@example.com", null, User.Role.CUSTOMER)));
+
+        assertFalse(readsFromReplica(), "reads right after the user's own write must use the primary");
+
+        ReadYourWritesTracker.setCurrentUser(43L);
+        assertTrue(readsFromReplica(), "other users keep reading from the replica");
+
+        ReadYourWritesTracker.setCurrentUser(42L);
+        Thread.sleep(600);
+        assertTrue(readsFromReplica(), "after the window the user reads from the replica again");
+    }
+
+    @Test
+    void rolledBackWritesDoNotPinUserToPrimary() {
+        ReadYourWritesTracker.setCurrentUser(44L);
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.executeWithoutResult(status -> {
+            userRepository.findByLogin("nobody");
+            status.setRollbackOnly();
+        });
+
+        assertTrue(readsFromReplica());
+    }
+
+    @Test
+    @DirtiesContext
+    void failedReplicaIsMarkedDownAndReadsFallBackToPrimary() {
+        replicaPool.getReplicas().forEach(replica -> ((HikariDataSource) replica.dataSource()).close());
+
+        assertFalse(readsFromReplica());
+        assertEquals(0, replicaPool.getHealthyCount());
+        assertEquals(1L, routingDataSource.getStats().get("failovers"));
+        // The read after that does not even try the replica
+        assertFalse(readsFromReplica());
+        assertEquals(1L, routingDataSource.getStats().get("failovers"));
+    }
+
+    @Test
+    void cacheMissesAreLoadedFromPrimary() {
+        User seller = userRepository.save(
+                new User(null, "Cache Seller", "cache-seller", "cache-seller@example.com", null, User.Role.PRODUCER));
+        User buyer = userRepository.save(
+                new User(null, "Cache Buyer", "cache-buyer", "cache-buyer@example.com", null, User.Role.CUSTOMER));
+        Product product = productRepository.save(new Product("Primary only", null, 10.0, null, seller, "Cache"));
+        messageService.sendMessage(seller.getId(), buyer.getId(), "hello");
+
+        // Neither row exists on the replica, so a load served there would come back empty
+        assertTrue(inTransaction(true, () -> productService.findById(product.getId())).isPresent());
+        assertEquals(1L, inTransaction(true, () -> messageService.getUnreadCount(buyer.getId())));
+        assertTrue((Long) routingDataSource.getStats().get("requestedPrimaryReads") >= 2);
+    }
+}
@@ -0,0 +1,19 @@
+package example.com.server.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pins the number of SQL statements a piece of code runs, so that N+1 regressions fail a test.
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    public static void assertStatements(int expected, Runnable action) {
+        try (QueryCounter.Scope scope = QueryCounter.start()) {
+            action.run();
+            assertEquals(expected, scope.getStatements(), () -> "Unexpected SQL statements: " + scope.getSql());
+        }
+    }
+}
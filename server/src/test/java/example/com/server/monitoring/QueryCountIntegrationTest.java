@@ -0,0 +1,71 @@
+package example.com.server.monitoring;
+
+import example.com.server.model.Rating;
+import example.com.server.model.User;
+import example.com.server.repository.RatingRepository;
+import example.com.server.repository.UserRepository;
+import example.com.server.service.RatingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static example.com.server.monitoring.QueryCountAssertions.assertStatements;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+@AutoConfigureMockMvc
+class QueryCountIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private QueryBudgetFilter queryBudgetFilter;
+
+    private Long producerWithRatings(int ratings) {
+        User producer = TestUsers.create(userRepository, User.Role.PRODUCER);
+        for (int i = 0; i < ratings; i++) {
+            ratingRepository.save(new Rating(TestUsers.create(userRepository, User.Role.CUSTOMER), producer, 1 + i % 5));
+        }
+        return producer.getId();
+    }
+
+    @Test
+    void ratingsOfProducerAreLoadedWithOneQuery() {
+        Long producerId = producerWithRatings(5);
+
+        assertStatements(1, () -> assertEquals(5, ratingService.getRatingsByProducer(producerId).size()));
+    }
+
+    @Test
+    void requestFilterCountsStatementsPerEndpoint() throws Exception {
+        Long producerId = producerWithRatings(3);
+
+        mockMvc.perform(get("/api/ratings/producer/{producerId}", producerId))
+                .andExpect(status().isOk())
+                .andExpect(request().attribute(QueryBudgetFilter.STATEMENTS_ATTRIBUTE, 1));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> endpoints =
+                (Map<String, Map<String, Object>>) queryBudgetFilter.getStats().get("endpoints");
+        assertEquals(1L, endpoints.get("GET /api/ratings/producer/{producerId}").get("maxStatements"));
+    }
+}
@@ -0,0 +1,40 @@
+package example.com.server.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryCounterTest {
+
+    @Test
+    void countsOnlyInsideScope() {
+        QueryCounter.statementPrepared("select 0");
+        try (QueryCounter.Scope scope = QueryCounter.start()) {
+            QueryCounter.statementPrepared("select 1");
+            QueryCounter.statementExecuted(5_000_000);
+
+            assertEquals(1, scope.getStatements());
+            assertEquals(5, scope.getDbTime().toMillis());
+            assertEquals(List.of("select 1"), scope.getSql());
+        }
+        QueryCounter.statementPrepared("select 2");
+    }
+
+    @Test
+    void innerScopeAddsToOuterScopeWhenClosed() {
+        try (QueryCounter.Scope outer = QueryCounter.start()) {
+            QueryCounter.statementPrepared("select 1");
+            try (QueryCounter.Scope inner = QueryCounter.start()) {
+                QueryCounter.statementPrepared("select 2");
+                assertEquals(1, inner.getStatements());
+                assertEquals(1, outer.getStatements());
+            }
+            QueryCounter.statementPrepared("select 3");
+
+            assertEquals(3, outer.getStatements());
+            assertEquals(List.of("select 1", "select 2", "select 3"), outer.getSql());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package example.com.server.monitoring;
+
+import example.com.server.model.User;
+import example.com.server.repository.UserRepository;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Saves users for integration tests. Tests share one in-memory database per Spring context, so every
+ * user gets its own login and email.
+ */
+public final class TestUsers {
+
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    private TestUsers() {
+    }
+
+    public static User create(UserRepository userRepository, User.Role role) {
+        int n = USERS.incrementAndGet();
+        return save(userRepository, n, "Test User " + n, role);
+    }
+
+    /**
+     * @param fullName display name, may be null to fall back to the login
+     */
+    public static User create(UserRepository userRepository, String fullName, User.Role role) {
+        return save(userRepository, USERS.incrementAndGet(), fullName, role);
+    }
+
+    private static User save(UserRepository userRepository, int n, String fullName, User.Role role) {
+        return userRepository.save(new User(null, fullName, "test-user" + n, "test-user" + n + "@example.com",
+                "secret-hash", role));
+    }
+}
@@ -0,0 +1,74 @@
+package example.com.server.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A database created before the aggregate tables existed is migrated with rows already in it:
+ * the migrations that add the tables must fill them from those rows.
+ */
+class MigrationBackfillTest {
+
+    private static final String URL =
+            "jdbc:h2:mem:migration-backfill;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void aggregateTablesAreBackfilledFromExistingRows() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(URL, "sa", "");
+        Flyway.configure().dataSource(dataSource).target("2").load().migrate();
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO user (iduser, full_name, login, role) VALUES (1, 'Anna', 'anna', 'CUSTOMER')");
+        jdbc.update("INSERT INTO user (iduser, full_name, login, role) VALUES (2, NULL, 'bob', 'CUSTOMER')");
+        jdbc.update("INSERT INTO user (iduser, full_name, login, role) VALUES (3, 'Maker', 'maker', 'PRODUCER')");
+        Instant now = Instant.parse("2026-01-01T12:00:00Z");
+        insertMessage(jdbc, 1, 1, 2, "hi", now, true);
+        insertMessage(jdbc, 2, 2, 1, "hello", now.plusSeconds(1), false);
+        insertMessage(jdbc, 3, 1, 2, "still there?", now.plusSeconds(2), false);
+        jdbc.update("INSERT INTO rating (customer_id, producer_id, rating_value, created_at) VALUES (1, 3, 5, ?)",
+                Timestamp.from(now));
+        jdbc.update("INSERT INTO rating (customer_id, producer_id, rating_value, created_at) VALUES (2, 3, 3, ?)",
+                Timestamp.from(now));
+
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        Map<String, Object> anna = summary(jdbc, 1, 2);
+        assertEquals("bob", anna.get("partner_name"));
+        assertEquals("still there?", anna.get("last_message"));
+        assertEquals(true, anna.get("last_message_from_me"));
+        assertEquals(1L, anna.get("unread_count"));
+
+        Map<String, Object> bob = summary(jdbc, 2, 1);
+        assertEquals("Anna", bob.get("partner_name"));
+        assertEquals("still there?", bob.get("last_message"));
+        assertEquals(false, bob.get("last_message_from_me"));
+        assertEquals(1L, bob.get("unread_count"));
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM conversation_summaries", Integer.class));
+
+        Map<String, Object> stats = jdbc.queryForMap("SELECT * FROM producer_rating_stats WHERE producer_id = 3");
+        assertEquals(8L, stats.get("rating_sum"));
+        assertEquals(2L, stats.get("rating_count"));
+        assertEquals(1L, stats.get("five_stars"));
+        assertEquals(1L, stats.get("three_stars"));
+        assertEquals(0L, stats.get("one_star"));
+    }
+
+    private static void insertMessage(JdbcTemplate jdbc, long id, long senderId, long receiverId, String content,
+                                      Instant createdAt, boolean read) {
+        jdbc.update("INSERT INTO messages (id, sender_id, receiver_id, content, created_at, is_read) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", id, senderId, receiverId, content, Timestamp.from(createdAt), read);
+    }
+
+    private static Map<String, Object> summary(JdbcTemplate jdbc, long ownerId, long partnerId) {
+        return jdbc.queryForMap("SELECT * FROM conversation_summaries WHERE owner_id = ? AND partner_id = ?",
+                ownerId, partnerId);
+    }
+}
@@ -0,0 +1,175 @@
+package example.com.server.repository;
+
+import example.com.server.dto.OrderFilter;
+import example.com.server.dto.PageCursor;
+import example.com.server.model.Order;
+import example.com.server.monitoring.QueryCounter;
+import example.com.server.service.OrderService;
+import example.com.server.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plan checks for the hot queries: each one is run through its repository or service method, and the SQL
+ * Hibernate generated for it is explained. The build fails when a query stops using its index from the
+ * migrations (for example after a change to the query or the index) and falls back to a full scan.
+ * Runs on H2; the indexes are the same on MySQL, where EXPLAIN should show the same keys.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class QueryPlanTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+
+    // MySQL drops the single-column index it created for a foreign key once a composite index starts
+    // with the same column; H2 keeps it and, without statistics, rates both the same
+    private static final String MESSAGES_RECEIVER_FK = "fkjnjxr6fd6nmvp28gakno4np94";
+    private static final String ORDERS_USER_FK = "fkel9kyl84ego2otj2accfd8mr7";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    private void assertUsesIndex(String index, Runnable query, Object... params) {
+        assertUsesAnyIndex(List.of(index), query, params);
+    }
+
+    /**
+     * Run the query, explain the single statement it issued with the given bind values (in the order
+     * of the placeholders) and check that the plan reads the table through one of the expected indexes.
+     */
+    private void assertUsesAnyIndex(List<String> indexes, Runnable query, Object... params) {
+        String sql;
+        try (QueryCounter.Scope scope = QueryCounter.start()) {
+            query.run();
+            assertEquals(1, scope.getStatements(), scope.getSql().toString());
+            sql = scope.getSql().get(0);
+        }
+        Object[] args = new Object[params.length];
+        for (int i = 0; i < params.length; i++) {
+            args[i] = params[i] instanceof Instant instant ? Timestamp.from(instant) : params[i];
+        }
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, args);
+        assertTrue(indexes.stream().anyMatch(index -> plan.contains("public." + index)),
+                "expected one of " + indexes + " in plan:\n" + plan);
+        assertFalse(plan.contains("tableScan"), "full scan in plan:\n" + plan);
+    }
+
+    @Test
+    void conversationPageUsesSenderReceiverIndex() {
+        List<String> indexes = List.of("idx_messages_sender_receiver_created", MESSAGES_RECEIVER_FK);
+        assertUsesAnyIndex(indexes,
+                () -> messageRepository.findLatestInConversation(1L, 2L, 20),
+                1L, 2L, 20, 2L, 1L, 20, 20);
+        assertUsesAnyIndex(indexes,
+                () -> messageRepository.findInConversationBefore(1L, 2L, NOW, 10L, 20),
+                1L, 2L, NOW, NOW, 10L, 20, 2L, 1L, NOW, NOW, 10L, 20, 20);
+    }
+
+    @Test
+    void unreadCountsUseReceiverIndex() {
+        assertUsesIndex("idx_messages_receiver_read_sender",
+                () -> messageRepository.countByReceiverIdAndIsReadFalse(1L),
+                1L);
+        assertUsesIndex("idx_messages_receiver_read_sender",
+                () -> messageRepository.countUnreadMessagesBetweenUsers(1L, 2L),
+                1L, 2L);
+    }
+
+    @Test
+    void productFeedUsesCreatedIndex() {
+        assertUsesIndex("idx_product_created",
+                () -> productService.findFeedAfter(null, null, null, null, new PageCursor(NOW, 10L), 20),
+                NOW, NOW, 10L, 21);
+    }
+
+    @Test
+    void availableProductFeedUsesAvailableIndex() {
+        assertUsesIndex("idx_product_available_created",
+                () -> productService.findFeedAfter(null, null, null, true, null, 20),
+                21);
+    }
+
+    @Test
+    void categoryFeedUsesCategoryIndex() {
+        assertUsesIndex("idx_product_category_available_created",
+                () -> productService.findFeedAfter("Books", null, null, true, null, 20),
+                "Books", 21);
+    }
+
+    @Test
+    void sellerFeedUsesSellerIndex() {
+        assertUsesIndex("idx_product_seller_created",
+                () -> productService.findFeedAfter(null, null, 1L, null, new PageCursor(NOW, 10L), 20),
+                1L, NOW, NOW, 10L, 21);
+    }
+
+    @Test
+    void cartLookupUsesUserProductIndex() {
+        assertUsesIndex("idx_cart_items_user_product",
+                () -> cartItemRepository.findByUserIdAndProductId(1L, 2L),
+                1L, 2L);
+    }
+
+    @Test
+    void ordersOfUserUseUserIndex() {
+        assertUsesAnyIndex(List.of("idx_orders_user_created", ORDERS_USER_FK),
+                () -> orderService.findOrders(OrderFilter.byUser(1L), null, 0, 20),
+                1L, 21);
+    }
+
+    @Test
+    void ordersByStatusUseStatusIndex() {
+        assertUsesIndex("idx_orders_status_created",
+                () -> orderService.findOrders(OrderFilter.byStatus(Order.Status.PENDING), null, 0, 20),
+                Order.Status.PENDING.name(), 21);
+    }
+
+    @Test
+    void ordersInRangeUseCreatedIndex() {
+        Instant from = NOW.minusSeconds(3600);
+        assertUsesIndex("idx_orders_created",
+                () -> orderService.findOrders(new OrderFilter(null, null, null, from, NOW), null, 0, 20),
+                from, NOW, 21);
+    }
+
+    @Test
+    void signInLookupsUseUserIndexes() {
+        assertUsesIndex("idx_user_login", () -> userRepository.findByLogin("alice"), "alice");
+        assertUsesIndex("idx_user_email", () -> userRepository.findByEmail("alice@example.com"),
+                "alice@example.com");
+    }
+
+    @Test
+    void explainReportsFullScans() {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN SELECT * FROM messages WHERE content = ?",
+                String.class, "hello");
+        assertTrue(plan.contains("tableScan"), plan);
+        assertFalse(plan.contains("idx_messages_"), plan);
+    }
+}
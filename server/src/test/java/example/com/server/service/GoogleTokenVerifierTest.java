@@ -0,0 +1,109 @@
+package example.com.server.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GoogleTokenVerifierTest {
+
+    private static final String CLIENT_ID = "test-client";
+
+    private final KeyPair keyPair = Jwts.SIG.RS256.keyPair().build();
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 200;
+
+    private HttpServer server;
+    private GoogleCertsKeyProvider keyProvider;
+    private GoogleTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String jwks = "{\"keys\":[" + Jwks.json(Jwks.builder().key(keyPair.getPublic()).id("k1").build()) + "]}";
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/certs", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = jwks.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        keyProvider = new GoogleCertsKeyProvider("http://127.0.0.1:" + server.getAddress().getPort() + "/certs",
+                Duration.ofSeconds(2), Duration.ofHours(1), 2, Duration.ofMinutes(1));
+        keyProvider.start();
+        verifier = new GoogleTokenVerifier(keyProvider, CLIENT_ID, 100, Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        keyProvider.stop();
+        server.stop(0);
+    }
+
+    @Test
+    void verifiesWithPrefetchedKeysAndCachesResult() {
+        String token = token("k1", CLIENT_ID, new Date(System.currentTimeMillis() + 60_000));
+
+        GoogleTokenVerifier.GoogleIdentity identity = verifier.verify(token);
+        assertEquals("google-sub", identity.subject());
+        assertEquals("user@example.com", identity.email());
+        assertEquals("Test User", identity.name());
+
+        verifier.verify(token);
+        assertEquals(1, requests.get());
+        assertEquals(1L, verifier.getCacheStats().get("hits"));
+    }
+
+    @Test
+    void rejectsWrongAudienceUnknownKeyAndExpiredTokens() {
+        Date exp = new Date(System.currentTimeMillis() + 60_000);
+        assertThrows(JwtException.class, () -> verifier.verify(token("k1", "other-client", exp)));
+        assertThrows(JwtException.class, () -> verifier.verify(token("k2", CLIENT_ID, exp)));
+        assertThrows(JwtException.class,
+                () -> verifier.verify(token("k1", CLIENT_ID, new Date(System.currentTimeMillis() - 600_000))));
+    }
+
+    @Test
+    void opensCircuitAfterRepeatedFailuresAndKeepsServingKnownKeys() {
+        status = 500;
+        keyProvider.refresh();
+        keyProvider.refresh();
+        assertTrue((Boolean) keyProvider.getStats().get("circuitOpen"));
+
+        int before = requests.get();
+        keyProvider.refresh();
+        assertEquals(before, requests.get());
+        assertFalse(keyProvider.getKey("k1").isEmpty());
+    }
+
+    private String token(String keyId, String audience, Date expiration) {
+        return Jwts.builder()
+                .header().keyId(keyId).and()
+                .issuer("https://accounts.google.com")
+                .audience().add(audience).and()
+                .subject("google-sub")
+                .claim("email", "user@example.com")
+                .claim("name", "Test User")
+                .issuedAt(new Date())
+                .expiration(expiration)
+                .signWith(keyPair.getPrivate(), Jwts.SIG.RS256)
+                .compact();
+    }
+}
@@ -0,0 +1,87 @@
+package example.com.server.service;
+
+import example.com.server.model.User;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtServiceTest {
+
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void verifiesOnceAndServesRepeatsFromCache() {
+        String bearer = "Bearer " + jwtService.generateToken(user(42L));
+
+        assertEquals(42L, jwtService.getUserIdFromToken(bearer));
+        assertEquals(42L, jwtService.getUserIdFromToken(bearer));
+        assertEquals(42L, jwtService.getUserIdFromToken(bearer));
+
+        Map<String, Object> stats = jwtService.getCacheStats();
+        assertEquals(1, stats.get("size"));
+        assertEquals(2L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+    }
+
+    @Test
+    void rejectsTamperedTokensAndDoesNotCacheThem() {
+        String token = jwtService.generateToken(user(42L));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtService.getUserIdFromToken("Bearer " + tampered));
+        assertThrows(JwtException.class, () -> jwtService.getUserIdFromToken("Bearer " + tampered));
+        assertEquals(0, jwtService.getCacheStats().get("size"));
+        assertNull(jwtService.getUserIdFromToken("Basic abc"));
+    }
+
+    @Test
+    void cacheHonoursTokenExpiry() {
+        VerifiedTokenCache<Long> cache = new VerifiedTokenCache<>(10, Duration.ofMinutes(10));
+        cache.put("expired", 1L, Instant.now().minusSeconds(1));
+        cache.put("valid", 2L, Instant.now().plusSeconds(60));
+
+        assertTrue(cache.get("expired").isEmpty());
+        assertEquals(2L, cache.get("valid").orElseThrow());
+    }
+
+    @Test
+    void fullCacheMakesRoomOnlyFromExpiredTokens() throws InterruptedException {
+        VerifiedTokenCache<Long> cache = new VerifiedTokenCache<>(2, Duration.ofMinutes(10));
+        Instant exp = Instant.now().plusSeconds(60);
+        cache.put("a", 1L, Instant.now().plusMillis(20));
+        cache.put("b", 2L, exp);
+        Thread.sleep(30);
+
+        // "a" has expired and is swept to make room
+        cache.put("c", 3L, exp);
+        // Full of live tokens: "d" is not cached, and nothing cached is displaced
+        cache.put("d", 4L, exp);
+
+        assertTrue(cache.get("a").isEmpty());
+        assertEquals(2L, cache.get("b").orElseThrow());
+        assertEquals(3L, cache.get("c").orElseThrow());
+        assertTrue(cache.get("d").isEmpty());
+        assertEquals(1L, cache.getStats().get("rejected"));
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setLogin("user" + id);
+        return user;
+    }
+}
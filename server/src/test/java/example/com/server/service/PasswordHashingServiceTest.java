@@ -0,0 +1,128 @@
+package example.com.server.service;
+
+import example.com.server.config.ConfiguredCostBCryptPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void hashesAndRequestsRehashOfOtherCosts() {
+        service = serviceWith(new ConfiguredCostBCryptPasswordEncoder(5), 1, 4);
+
+        String encoded = service.encode("secret");
+        assertTrue(service.matches("secret", encoded));
+        assertFalse(service.matches("wrong", encoded));
+
+        assertTrue(service.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        // Made before the cost was lowered: rehashed as well, so logins stop paying for it
+        assertTrue(service.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertTrue(service.upgradeEncoding(new BCryptPasswordEncoder(BCryptPasswordEncoder.BCryptVersion.$2B, 6)
+                .encode("secret")));
+        assertFalse(service.upgradeEncoding(encoded));
+        assertFalse(service.upgradeEncoding(null));
+        assertFalse(service.upgradeEncoding("not a bcrypt hash"));
+
+        assertEquals(3L, service.getStats().get("completed"));
+        assertEquals(3L, meterRegistry.get("auth.hashing.duration").timer().count());
+        assertEquals(3L, meterRegistry.get("auth.hashing.queue.wait").timer().count());
+    }
+
+    @Test
+    void rejectsImmediatelyWhenSaturated() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        service = serviceWith(new BlockingEncoder(started, release), 1, 1);
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> service.matches("a", "a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> service.matches("b", "b"));
+        while ((int) service.getStats().get("queueDepth") == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(RejectedExecutionException.class, () -> service.matches("c", "c"));
+        assertEquals(1L, service.getStats().get("rejected"));
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void queueWaitTimesOutButRunningHashFinishes() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        service = serviceWith(new BlockingEncoder(started, release), 1, 1, Duration.ofMillis(200));
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> service.matches("a", "a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Waits behind the running hash for longer than the queue timeout
+        assertThrows(RejectedExecutionException.class, () -> service.matches("b", "b"));
+        assertEquals(1L, service.getStats().get("rejected"));
+        assertEquals(0, service.getStats().get("queueDepth"));
+
+        // The running hash has outlived the timeout as well, but still returns its result
+        Thread.sleep(300);
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertEquals(1L, service.getStats().get("rejected"));
+        assertEquals(1L, service.getStats().get("completed"));
+    }
+
+    private PasswordHashingService serviceWith(PasswordEncoder encoder, int poolSize, int queueCapacity) {
+        return serviceWith(encoder, poolSize, queueCapacity, Duration.ofSeconds(5));
+    }
+
+    private PasswordHashingService serviceWith(PasswordEncoder encoder, int poolSize, int queueCapacity,
+                                               Duration queueTimeout) {
+        PasswordHashingService service = new PasswordHashingService(poolSize, queueCapacity, queueTimeout,
+                meterRegistry);
+        ReflectionTestUtils.setField(service, "passwordEncoder", encoder);
+        return service;
+    }
+
+    private record BlockingEncoder(CountDownLatch started, CountDownLatch release) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package example.com.server.service;
+
+import example.com.server.model.Product;
+import example.com.server.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductCacheTest {
+
+    private static Product product(long id, String name, long sellerId) {
+        User seller = new User();
+        seller.setId(sellerId);
+        seller.setLogin("seller" + sellerId);
+        Product product = new Product(name, null, 10.0, null, seller, "Wood");
+        product.setId(id);
+        return product;
+    }
+
+    private static void load(ProductCache cache, Product product) {
+        cache.put(product, cache.beginLoad());
+    }
+
+    @Test
+    void returnsDetachedCopiesOfCachedProducts() {
+        ProductCache cache = new ProductCache(10, Duration.ofMinutes(5));
+        load(cache, product(1, "Bowl", 7));
+
+        Product first = cache.get(1L).orElseThrow();
+        first.setName("Changed by a caller");
+
+        Product second = cache.get(1L).orElseThrow();
+        assertEquals("Bowl", second.getName());
+        assertEquals("seller7", second.getSeller().getLogin());
+        assertEquals(2L, cache.getStats().get("hits"));
+    }
+
+    @Test
+    void expiredProductIsAMiss() {
+        ProductCache cache = new ProductCache(10, Duration.ZERO);
+        load(cache, product(1, "Bowl", 7));
+
+        assertTrue(cache.get(1L).isEmpty());
+        assertEquals(1L, cache.getStats().get("misses"));
+        assertEquals(1L, cache.getStats().get("evictions"));
+        assertEquals(0, cache.getStats().get("size"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedProductsFirst() {
+        ProductCache cache = new ProductCache(3, Duration.ofMinutes(5));
+        load(cache, product(1, "Bowl", 7));
+        load(cache, product(2, "Spoon", 7));
+        load(cache, product(3, "Board", 7));
+        // Product 1 is read again, so product 2 is now the least recently used
+        cache.get(1L);
+
+        load(cache, product(4, "Cup", 7));
+
+        assertTrue(cache.get(2L).isEmpty());
+        assertTrue(cache.get(1L).isPresent());
+        assertTrue(cache.get(3L).isPresent());
+        assertTrue(cache.get(4L).isPresent());
+        assertEquals(3, cache.getStats().get("size"));
+    }
+
+    @Test
+    void loadStartedBeforeAnInvalidationIsNotCached() {
+        ProductCache cache = new ProductCache(10, Duration.ofMinutes(5));
+
+        long token = cache.beginLoad();
+        // The product is updated and invalidated while the old row is being read
+        cache.invalidate(1L);
+        cache.put(product(1, "Old name", 7), token);
+        assertTrue(cache.get(1L).isEmpty());
+
+        token = cache.beginLoad();
+        cache.invalidateSeller(7L);
+        cache.put(product(1, "Old seller name", 7), token);
+        assertTrue(cache.get(1L).isEmpty());
+
+        load(cache, product(1, "New name", 7));
+        assertEquals("New name", cache.get(1L).orElseThrow().getName());
+    }
+
+    @Test
+    void invalidateSellerDropsOnlyThatSellersProducts() {
+        ProductCache cache = new ProductCache(10, Duration.ofMinutes(5));
+        load(cache, product(1, "Bowl", 7));
+        load(cache, product(2, "Spoon", 8));
+
+        cache.invalidateSeller(7L);
+
+        assertTrue(cache.get(1L).isEmpty());
+        assertTrue(cache.get(2L).isPresent());
+    }
+
+    @Test
+    void loadsRacingUpdatesNeverCacheAnOldName() throws Exception {
+        int products = 2000;
+        ProductCache cache = new ProductCache(products, Duration.ofMinutes(5));
+        // Stands in for the product table
+        AtomicReferenceArray<String> namesInDatabase = new AtomicReferenceArray<>(products);
+        for (int id = 0; id < products; id++) {
+            namesInDatabase.set(id, "old");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        // Both threads start on the same product together
+        CyclicBarrier nextProduct = new CyclicBarrier(2);
+        try {
+            // Each product is renamed while it is loaded for the first time, invalidating after the commit
+            Future<?> writer = executor.submit(() -> {
+                for (int id = 0; id < products; id++) {
+                    nextProduct.await();
+                    namesInDatabase.set(id, "new");
+                    cache.invalidate((long) id);
+                }
+                return null;
+            });
+            Future<?> reader = executor.submit(() -> {
+                for (int id = 0; id < products; id++) {
+                    nextProduct.await();
+                    Optional<Product> cached = cache.get((long) id);
+                    if (cached.isEmpty()) {
+                        long token = cache.beginLoad();
+                        String name = namesInDatabase.get(id);
+                        // A database round trip, for the update to land in between
+                        LockSupport.parkNanos(20_000);
+                        cache.put(product(id, name, 7), token);
+                    }
+                }
+                return null;
+            });
+            writer.get(30, TimeUnit.SECONDS);
+            reader.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int id = 0; id < products; id++) {
+            // Either the cached name matches the database or nothing was cached
+            Optional<Product> cached = cache.get((long) id);
+            assertFalse(cached.isPresent() && !cached.get().getName().equals(namesInDatabase.get(id)),
+                    "product " + id + " cached with an old name");
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package example.com.server.service;
+
+import example.com.server.model.Product;
+import example.com.server.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.index(product(1L, "Wooden table", "Handmade oak table", "furniture", 10L, true));
+        index.index(product(2L, "Ceramic mug", "Mug with a wooden handle", "kitchen", 11L, true));
+        index.index(product(3L, "Table lamp", "Lamp for a bedside table", "furniture", 10L, false));
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        ProductSearchIndex.SearchResult result = index.search("wooden", null, null, false, 0, 10);
+
+        assertEquals(List.of(1L, 2L), result.productIds());
+        assertEquals(2, result.totalMatches());
+    }
+
+    @Test
+    void matchesPrefixesAndRequiresAllTokens() {
+        assertEquals(List.of(3L, 1L), index.search("tab", null, null, false, 0, 10).productIds());
+        assertEquals(List.of(3L), index.search("tab LAMP", null, null, false, 0, 10).productIds());
+        assertTrue(index.search("table mug", null, null, false, 0, 10).productIds().isEmpty());
+    }
+
+    @Test
+    void appliesFiltersAndPaging() {
+        assertEquals(List.of(1L), index.search("table", null, null, true, 0, 10).productIds());
+        assertEquals(List.of(2L), index.search("wood", "kitchen", null, false, 0, 10).productIds());
+
+        // Equal scores are ordered newest first, so product 1 ends up on the second page
+        ProductSearchIndex.SearchResult secondPage = index.search("table", null, 10L, false, 1, 1);
+        assertEquals(List.of(1L), secondPage.productIds());
+        assertEquals(2, secondPage.totalMatches());
+    }
+
+    @Test
+    void reflectsUpdatesAndRemovals() {
+        index.index(product(2L, "Ceramic cup", "Plain cup", "kitchen", 11L, true));
+        assertTrue(index.search("mug", null, null, false, 0, 10).productIds().isEmpty());
+        assertEquals(List.of(2L), index.search("cup", null, null, false, 0, 10).productIds());
+
+        index.remove(1L);
+        assertEquals(List.of(3L), index.search("table", null, null, false, 0, 10).productIds());
+    }
+
+    private static Product product(Long id, String name, String description, String category,
+                                   Long sellerId, boolean available) {
+        User seller = new User();
+        seller.setId(sellerId);
+        Product product = new Product(name, description, 10.0, null, seller, category);
+        product.setId(id);
+        product.setIsAvailable(available);
+        product.setCreatedAt(Instant.ofEpochSecond(id));
+        return product;
+    }
+}
@@ -0,0 +1,134 @@
+package example.com.server.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnreadCounterCacheTest {
+
+    @Test
+    void loadsOnceAndAppliesAdjustments() {
+        UnreadCounterCache cache = new UnreadCounterCache(100, Duration.ofMinutes(10));
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(3, cache.get(1L, () -> { loads.incrementAndGet(); return 3; }));
+        cache.adjust(1L, 2);
+        cache.adjust(1L, -10);
+
+        assertEquals(0, cache.get(1L, () -> { loads.incrementAndGet(); return 99; }));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void doesNotCacheLoadThatOverlapsAnAdjustment() {
+        UnreadCounterCache cache = new UnreadCounterCache(100, Duration.ofMinutes(10));
+
+        // The adjustment lands while the count is being read from the database
+        assertEquals(5, cache.get(1L, () -> { cache.adjust(1L, 1); return 5; }));
+
+        assertEquals(6, cache.get(1L, () -> 6));
+        assertEquals(6, cache.get(1L, () -> 42));
+    }
+
+    @Test
+    void expiredCountIsLoadedAgain() {
+        UnreadCounterCache cache = new UnreadCounterCache(100, Duration.ZERO);
+
+        assertEquals(3, cache.get(1L, () -> 3));
+        // The database changed behind the cache's back; the next read counts again
+        assertEquals(7, cache.get(1L, () -> 7));
+        assertEquals(1L, cache.getStats().get("expirations"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedCountersFirst() throws InterruptedException {
+        UnreadCounterCache cache = new UnreadCounterCache(10, Duration.ofMinutes(10));
+        for (long userId = 1; userId <= 10; userId++) {
+            cache.get(userId, () -> 1);
+            Thread.sleep(1);
+        }
+        // User 1 is read again, so user 2 is now the least recently used
+        cache.get(1L, () -> 99);
+        Thread.sleep(1);
+
+        cache.get(11L, () -> 1);
+
+        assertEquals(1, cache.get(1L, () -> 99));
+        assertEquals(99, cache.get(2L, () -> 99));
+        assertTrue((Integer) cache.getStats().get("size") <= 10);
+    }
+
+    @Test
+    void loadsRacingCommittedAdjustmentsDoNotDrift() throws Exception {
+        int users = 2000;
+        UnreadCounterCache cache = new UnreadCounterCache(users, Duration.ofMinutes(10));
+        // Stands in for the message table
+        AtomicLongArray unreadInDatabase = new AtomicLongArray(users);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        // Both threads start on the same user together
+        CyclicBarrier nextUser = new CyclicBarrier(2);
+        try {
+            // Each user gets one message while the badge is loaded for the first time
+            Future<?> sender = executor.submit(() -> {
+                for (int user = 0; user < users; user++) {
+                    nextUser.await();
+                    int id = user;
+                    inCommittedTransaction(() -> {
+                        cache.adjust((long) id, 1);
+                        unreadInDatabase.incrementAndGet(id);
+                    });
+                }
+                return null;
+            });
+            Future<?> reader = executor.submit(() -> {
+                for (int user = 0; user < users; user++) {
+                    nextUser.await();
+                    int id = user;
+                    cache.get((long) id, () -> {
+                        long unread = unreadInDatabase.get(id);
+                        // A database round trip, for the message to land in between
+                        LockSupport.parkNanos(20_000);
+                        return unread;
+                    });
+                }
+                return null;
+            });
+            sender.get(30, TimeUnit.SECONDS);
+            reader.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int user = 0; user < users; user++) {
+            // Either the cached count matches the database or nothing was cached
+            long cached = cache.get((long) user, () -> -1);
+            assertTrue(cached == -1 || cached == unreadInDatabase.get(user), "user " + user + ": " + cached);
+        }
+    }
+
+    private static void inCommittedTransaction(Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}